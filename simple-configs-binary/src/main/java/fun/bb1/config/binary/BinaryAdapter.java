@@ -0,0 +1,128 @@
+package fun.bb1.config.binary;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import fun.bb1.config.v2.adapter.AbstractAdapter;
+import fun.bb1.config.v2.adapter.IConfigurationSink;
+import fun.bb1.objects.Primitive;
+import fun.bb1.objects.Tuple;
+/**
+ * An adapter for a compact binary encoding of {@link Primitive}s, intended for configurations that are written and read by programs rather than people
+ * <br>
+ * Numbers keep their type, strings are length prefixed and map keys are stored once in a key table, so documents are read without any parsing or number formatting
+ *
+ * @apiNote As a string documents are Base64 encoded, files are written and read as raw bytes
+ * <br>
+ * Documents written through a {@link #openSink(OutputStream) sink} are only written once they are complete, as the key table comes before the value
+ */
+public class BinaryAdapter extends AbstractAdapter<ByteBuffer> {
+
+	BinaryAdapter() {
+		super(ByteBuffer.class);
+	}
+
+	@Override
+	public @NotNull ByteBuffer translate(@NotNull final Primitive primitive) {
+		return new BinaryEncoder().write(primitive).finish();
+	}
+
+	@Override
+	public @Nullable Primitive translate(@NotNull final ByteBuffer buffer) {
+		return new BinaryDecoder(buffer).read();
+	}
+
+	@Override
+	public @NotNull ByteBuffer translateMap(@NotNull final Map<String, Tuple<Primitive, String>> map) {
+		return new BinaryEncoder().writeMap(map).finish();
+	}
+
+	@Override
+	public @NotNull String convertToString(@NotNull final ByteBuffer buffer) {
+		return new String(Base64.getEncoder().encode(buffer.duplicate()).array(), StandardCharsets.ISO_8859_1);
+	}
+
+	@Override
+	public @NotNull ByteBuffer convertFromString(@NotNull final String str) {
+		return ByteBuffer.wrap(Base64.getDecoder().decode(str.strip()));
+	}
+
+	@Override
+	public void writeTo(@NotNull final OutputStream stream, @NotNull final ByteBuffer buffer) throws IOException {
+		if (buffer.hasArray()) {
+			stream.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+		} else {
+			Channels.newChannel(stream).write(buffer.duplicate());
+		}
+		stream.flush();
+	}
+
+	@Override
+	public @NotNull IConfigurationSink openSink(@NotNull final Writer writer) {
+		return new BinarySink((document)->{
+			writer.write(this.convertToString(document));
+			writer.flush();
+		});
+	}
+
+	@Override
+	public @NotNull IConfigurationSink openSink(@NotNull final OutputStream stream) {
+		return new BinarySink((document)->this.writeTo(stream, document));
+	}
+
+	@Override
+	public boolean supportsSinks() {
+		return true;
+	}
+
+	@Override
+	public @Nullable Primitive readFrom(@NotNull final InputStream stream) throws IOException {
+		final byte[] bytes = stream.readAllBytes();
+		if (bytes.length == 0) return null;
+		try {
+			return this.translate(ByteBuffer.wrap(bytes));
+		} catch (RuntimeException e) { // corrupt or truncated
+			throw new IOException(e);
+		}
+	}
+
+	@Override
+	public @Nullable Primitive readFrom(@NotNull final ByteBuffer buffer) throws IOException {
+		if (!buffer.hasRemaining()) return null;
+		try {
+			return this.translate(buffer); // decoded in place, so a mapped file is never copied
+		} catch (RuntimeException e) { // corrupt or truncated
+			throw new IOException(e);
+		}
+	}
+
+	@Override
+	public void readTo(@NotNull final InputStream stream, @NotNull final IConfigurationSink sink) throws IOException {
+		final byte[] bytes = stream.readAllBytes();
+		if (bytes.length == 0) {
+			sink.nullValue();
+			return;
+		}
+		try {
+			new BinaryDecoder(ByteBuffer.wrap(bytes)).readTo(sink);
+		} catch (RuntimeException e) { // corrupt or truncated
+			throw new IOException(e);
+		}
+	}
+
+	@Override
+	public @NotNull String getRecommendedFileExtension() {
+		return ".conf.bin";
+	}
+
+}
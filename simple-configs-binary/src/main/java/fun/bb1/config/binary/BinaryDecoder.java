@@ -0,0 +1,211 @@
+package fun.bb1.config.binary;
+
+import static fun.bb1.config.binary.BinaryFormat.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import fun.bb1.config.v2.adapter.IConfigurationSink;
+import fun.bb1.objects.Primitive;
+import fun.bb1.objects.PrimitiveMap;
+/**
+ * Decodes documents in the format described by {@link BinaryFormat} straight into {@link Primitive}s
+ * <br>
+ * The buffer is read in place, so heap, direct and mapped buffers are all decoded without copying them first
+ *
+ * @apiNote Comments are skipped as a {@link Primitive} cannot hold them, they are kept when reading into a {@link IConfigurationSink}
+ */
+final class BinaryDecoder {
+	/**
+	 * @return If the buffer starts with {@link BinaryFormat#MAGIC}, this does not move the buffer
+	 */
+	static boolean isBinary(@NotNull final ByteBuffer buffer) {
+		if (buffer.remaining() < MAGIC.length) return false;
+		for (int i = 0; i < MAGIC.length; i++) {
+			if (buffer.get(buffer.position() + i) != MAGIC[i]) return false;
+		}
+		return true;
+	}
+
+	private final @NotNull ByteBuffer buffer;
+	private final @NotNull String[] keys;
+	/**
+	 * @param buffer The buffer to read from, it is not moved
+	 *
+	 * @throws IllegalArgumentException If the buffer does not contain a document
+	 */
+	BinaryDecoder(@NotNull final ByteBuffer buffer) {
+		this.buffer = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+		if (!isBinary(this.buffer)) throw new IllegalArgumentException("Not a binary configuration");
+		this.buffer.position(this.buffer.position() + MAGIC.length);
+		final byte version = this.buffer.get();
+		if (version != VERSION) throw new IllegalArgumentException("Unsupported binary configuration version " + version);
+		this.keys = new String[this.getCount()];
+		for (int i = 0; i < this.keys.length; i++) {
+			this.keys[i] = this.getString();
+		}
+	}
+	/**
+	 * @return The value of the document
+	 */
+	@Nullable Primitive read() {
+		final byte tag = this.buffer.get();
+		switch (tag) {
+			case NULL:
+				return null;
+			case FALSE:
+				return new Primitive(false);
+			case TRUE:
+				return new Primitive(true);
+			case INTEGER: {
+				final long value = this.getVarint();
+				return new Primitive((value >>> 1) ^ -(value & 1));
+			}
+			case BIG_INTEGER:
+				return new Primitive(new BigInteger(this.getBytes()));
+			case FLOAT:
+				return new Primitive(this.buffer.getFloat());
+			case DOUBLE:
+				return new Primitive(this.buffer.getDouble());
+			case BIG_DECIMAL: {
+				final long scale = this.getVarint();
+				return new Primitive(new BigDecimal(new BigInteger(this.getBytes()), (int) ((scale >>> 1) ^ -(scale & 1))));
+			}
+			case STRING:
+				return new Primitive(this.getString());
+			case CHARACTER:
+				return new Primitive(this.buffer.getChar());
+			case ARRAY: {
+				final Primitive[] array = new Primitive[this.getCount()];
+				for (int i = 0; i < array.length; i++) {
+					array[i] = this.read();
+				}
+				return new Primitive(array);
+			}
+			case MAP: {
+				final PrimitiveMap<String> map = new PrimitiveMap<String>();
+				for (int i = this.getCount(); i > 0; i--) {
+					map.put(this.getKey(), this.read());
+				}
+				return new Primitive(map);
+			}
+			case COMMENT:
+				this.getBytes();
+				return this.read();
+			default:
+				throw new IllegalArgumentException("Unknown tag " + tag + " at " + (this.buffer.position() - 1));
+		}
+	}
+
+	/**
+	 * Writes the value of the document to the sink, alongside its comments
+	 */
+	void readTo(@NotNull final IConfigurationSink sink) throws IOException {
+		final byte tag = this.buffer.get();
+		switch (tag) {
+			case NULL:
+				sink.nullValue();
+				return;
+			case FALSE:
+				sink.value(false);
+				return;
+			case TRUE:
+				sink.value(true);
+				return;
+			case INTEGER: {
+				final long value = this.getVarint();
+				sink.value((value >>> 1) ^ -(value & 1));
+				return;
+			}
+			case FLOAT:
+				sink.value((Number) this.buffer.getFloat());
+				return;
+			case DOUBLE:
+				sink.value(this.buffer.getDouble());
+				return;
+			case STRING:
+				sink.value(this.getString());
+				return;
+			case CHARACTER:
+				sink.value(this.buffer.getChar());
+				return;
+			case ARRAY: {
+				sink.beginArray();
+				for (int i = this.getCount(); i > 0; i--) {
+					this.readTo(sink);
+				}
+				sink.endArray();
+				return;
+			}
+			case MAP: {
+				sink.beginObject();
+				for (int i = this.getCount(); i > 0; i--) {
+					sink.key(this.getKey());
+					this.readTo(sink);
+				}
+				sink.endObject();
+				return;
+			}
+			case COMMENT:
+				sink.comment(this.getString());
+				this.readTo(sink);
+				return;
+			default:
+				this.buffer.position(this.buffer.position() - 1);
+				final Primitive primitive = this.read(); // numbers without a sink method of their own
+				if (primitive != null) sink.value(primitive);
+		}
+	}
+
+	private long getVarint() {
+		long value = 0;
+		for (int shift = 0; shift < Long.SIZE; shift += 7) {
+			final byte b = this.buffer.get();
+			value |= (long) (b & 0x7F) << shift;
+			if (b >= 0) return value;
+		}
+		throw new IllegalArgumentException("Malformed varint at " + this.buffer.position());
+	}
+	/**
+	 * @return A count or length, checked against what is left of the buffer so a corrupt document cannot cause a huge allocation
+	 */
+	private int getCount() {
+		final long count = this.getVarint();
+		if (count < 0 || count > this.buffer.remaining()) throw new IllegalArgumentException("Malformed length " + count + " at " + this.buffer.position());
+		return (int) count;
+	}
+
+	private @NotNull String getKey() {
+		final long index = this.getVarint();
+		if (index < 0 || index >= this.keys.length) throw new IllegalArgumentException("Unknown key " + index + " at " + this.buffer.position());
+		return this.keys[(int) index];
+	}
+
+	private @NotNull byte[] getBytes() {
+		final byte[] bytes = new byte[this.getCount()];
+		this.buffer.get(bytes);
+		return bytes;
+	}
+
+	private @NotNull String getString() {
+		final int length = this.getCount();
+		final String string;
+		if (this.buffer.hasArray()) {
+			string = new String(this.buffer.array(), this.buffer.arrayOffset() + this.buffer.position(), length, StandardCharsets.UTF_8);
+		} else {
+			final byte[] bytes = new byte[length];
+			this.buffer.get(this.buffer.position(), bytes);
+			string = new String(bytes, StandardCharsets.UTF_8);
+		}
+		this.buffer.position(this.buffer.position() + length);
+		return string;
+	}
+
+}
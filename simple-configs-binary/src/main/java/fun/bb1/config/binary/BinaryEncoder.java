@@ -0,0 +1,225 @@
+package fun.bb1.config.binary;
+
+import static fun.bb1.config.binary.BinaryFormat.*;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import fun.bb1.objects.Primitive;
+import fun.bb1.objects.Tuple;
+/**
+ * Encodes {@link Primitive}s into the format described by {@link BinaryFormat}
+ * <br>
+ * The value is written as it is visited whilst its keys are interned, the header and key table are only written once it is complete
+ * <br>
+ * Values may also be written piece by piece, as {@link BinarySink} does, in which case the counts of maps and arrays are filled in once they end
+ */
+final class BinaryEncoder {
+	/**
+	 * The space kept for a count that is only known once its map or array ends, enough for any int as a varint
+	 */
+	private static final int PADDED_COUNT_BYTES = 5;
+
+	private final @NotNull Map<String, Integer> keys = new HashMap<String, Integer>();
+	private final @NotNull Output keyTable = new Output(64);
+	private final @NotNull Output body = new Output(256);
+
+	@NotNull BinaryEncoder write(@Nullable final Primitive primitive) {
+		if (primitive == null) {
+			this.writeNull();
+		} else if (primitive.isBoolean()) {
+			this.writeBoolean(primitive.getAsBoolean());
+		} else if (primitive.isNumber()) {
+			this.writeNumber(primitive.getAsNumber());
+		} else if (primitive.isCharacter()) {
+			this.writeCharacter(primitive.getAsCharacter());
+		} else if (primitive.isString()) {
+			this.writeString(primitive.getAsString());
+		} else if (primitive.isArray()) {
+			final Primitive[] array = primitive.getAsArray();
+			this.body.put(ARRAY);
+			this.body.putVarint(array.length);
+			for (final Primitive element : array) {
+				this.write(element);
+			}
+		} else {
+			final Map<String, Primitive> map = primitive.getAsStringBasedMap();
+			this.body.put(MAP);
+			this.body.putVarint(map.size());
+			for (final Entry<String, Primitive> entry : map.entrySet()) {
+				this.body.putVarint(this.intern(entry.getKey()));
+				this.write(entry.getValue());
+			}
+		}
+		return this;
+	}
+	/**
+	 * Writes a map whose values may have comments
+	 */
+	@NotNull BinaryEncoder writeMap(@NotNull final Map<String, Tuple<Primitive, String>> map) {
+		this.body.put(MAP);
+		this.body.putVarint(map.size());
+		for (final Entry<String, Tuple<Primitive, String>> entry : map.entrySet()) {
+			this.body.putVarint(this.intern(entry.getKey()));
+			final @Nullable String comment = entry.getValue().second();
+			if (comment != null && !comment.isBlank()) {
+				this.body.put(COMMENT);
+				this.body.putString(comment);
+			}
+			this.write(entry.getValue().first());
+		}
+		return this;
+	}
+
+	void writeNull() {
+		this.body.put(NULL);
+	}
+
+	void writeBoolean(final boolean value) {
+		this.body.put(value ? TRUE : FALSE);
+	}
+
+	void writeCharacter(final char value) {
+		this.body.put(CHARACTER);
+		this.body.ensure(Character.BYTES).putChar(value);
+	}
+
+	void writeString(@NotNull final String value) {
+		this.body.put(STRING);
+		this.body.putString(value);
+	}
+	/**
+	 * Writes the key of the next value within a map begun with {@link #beginContainer(byte)}
+	 */
+	void writeKey(@NotNull final String key) {
+		this.body.putVarint(this.intern(key));
+	}
+	/**
+	 * Writes a comment describing the next value
+	 */
+	void writeComment(@NotNull final String comment) {
+		this.body.put(COMMENT);
+		this.body.putString(comment);
+	}
+	/**
+	 * Begins a map or array whose count is not known yet
+	 * 
+	 * @param tag {@link BinaryFormat#MAP} or {@link BinaryFormat#ARRAY}
+	 * 
+	 * @return Where its count is to be written by {@link #endContainer(int, int)}
+	 */
+	int beginContainer(final byte tag) {
+		this.body.put(tag);
+		final int position = this.body.buffer.position();
+		this.body.ensure(PADDED_COUNT_BYTES).position(position + PADDED_COUNT_BYTES);
+		return position;
+	}
+	/**
+	 * Fills in the count of a map or array, padded to the space kept for it as it is followed by its contents
+	 */
+	void endContainer(final int position, int count) {
+		for (int i = 0; i < PADDED_COUNT_BYTES - 1; i++) {
+			this.body.buffer.put(position + i, (byte) ((count & 0x7F) | 0x80));
+			count >>>= 7;
+		}
+		this.body.buffer.put(position + PADDED_COUNT_BYTES - 1, (byte) count);
+	}
+	/**
+	 * @return A buffer containing the whole document, positioned at its start
+	 */
+	@NotNull ByteBuffer finish() {
+		final ByteBuffer keyTable = this.keyTable.buffer.flip();
+		final ByteBuffer body = this.body.buffer.flip();
+		final Output document = new Output(MAGIC.length + 1 + 5 + keyTable.remaining() + body.remaining());
+		document.buffer.put(MAGIC).put(VERSION);
+		document.putVarint(this.keys.size());
+		return document.buffer.put(keyTable).put(body).flip();
+	}
+
+	void writeNumber(@NotNull final Number number) {
+		if (number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte || number instanceof AtomicInteger || number instanceof AtomicLong) {
+			this.body.put(INTEGER);
+			final long value = number.longValue();
+			this.body.putVarint((value << 1) ^ (value >> 63));
+		} else if (number instanceof final BigInteger bigInteger) {
+			this.body.put(BIG_INTEGER);
+			this.body.putBytes(bigInteger.toByteArray());
+		} else if (number instanceof final BigDecimal bigDecimal) {
+			this.body.put(BIG_DECIMAL);
+			final long scale = bigDecimal.scale();
+			this.body.putVarint((scale << 1) ^ (scale >> 63));
+			this.body.putBytes(bigDecimal.unscaledValue().toByteArray());
+		} else if (number instanceof Float) {
+			this.body.put(FLOAT);
+			this.body.ensure(Float.BYTES).putFloat(number.floatValue());
+		} else {
+			this.body.put(DOUBLE);
+			this.body.ensure(Double.BYTES).putDouble(number.doubleValue());
+		}
+	}
+	/**
+	 * @return The index of the key in the key table, adding it if this is its first use
+	 */
+	private int intern(@NotNull final String key) {
+		final Integer index = this.keys.get(key);
+		if (index != null) return index;
+		final int newIndex = this.keys.size();
+		this.keys.put(key, newIndex);
+		this.keyTable.putString(key);
+		return newIndex;
+	}
+	/**
+	 * A {@link ByteBuffer} that grows as it is written to
+	 */
+	private static final class Output {
+
+		private @NotNull ByteBuffer buffer;
+
+		private Output(final int capacity) {
+			this.buffer = ByteBuffer.allocate(capacity);
+		}
+		/**
+		 * @return The buffer, with at least the requested number of bytes remaining
+		 */
+		private @NotNull ByteBuffer ensure(final int bytes) {
+			if (this.buffer.remaining() < bytes) {
+				this.buffer = ByteBuffer.allocate(Math.max(this.buffer.capacity() * 2, this.buffer.position() + bytes)).put(this.buffer.flip());
+			}
+			return this.buffer;
+		}
+
+		private void put(final byte b) {
+			this.ensure(1).put(b);
+		}
+
+		private void putVarint(long value) {
+			final ByteBuffer buffer = this.ensure(10);
+			while ((value & ~0x7FL) != 0) {
+				buffer.put((byte) ((value & 0x7F) | 0x80));
+				value >>>= 7;
+			}
+			buffer.put((byte) value);
+		}
+
+		private void putBytes(@NotNull final byte[] bytes) {
+			this.putVarint(bytes.length);
+			this.ensure(bytes.length).put(bytes);
+		}
+
+		private void putString(@NotNull final String string) {
+			this.putBytes(string.getBytes(StandardCharsets.UTF_8));
+		}
+
+	}
+
+}
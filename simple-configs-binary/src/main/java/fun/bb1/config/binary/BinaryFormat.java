@@ -0,0 +1,57 @@
+package fun.bb1.config.binary;
+
+import org.jetbrains.annotations.NotNull;
+/**
+ * The layout shared by {@link BinaryEncoder} and {@link BinaryDecoder}
+ * <br>
+ * A document is the {@link #MAGIC}, the {@link #VERSION}, the key table and then a single value
+ * <br>
+ * The key table is a count followed by every map key as a length prefixed UTF-8 string, maps refer to their keys by their index in it so each key is only stored once
+ * <br>
+ * Every value starts with one of the tags below, counts and lengths are unsigned varints, integers are zigzag varints and all other numbers are big endian
+ * <br>
+ * Varints may be padded with continuation bytes, documents written through a sink pad the counts of maps and arrays as they are only known once those end
+ */
+final class BinaryFormat {
+
+	static final @NotNull byte[] MAGIC = new byte[] { 'S', 'C', 'B' };
+	static final byte VERSION = 1;
+
+	static final byte NULL = 0;
+	static final byte FALSE = 1;
+	static final byte TRUE = 2;
+	/**
+	 * A zigzag varint
+	 */
+	static final byte INTEGER = 3;
+	/**
+	 * A length prefixed two's complement integer
+	 */
+	static final byte BIG_INTEGER = 4;
+	static final byte FLOAT = 5;
+	static final byte DOUBLE = 6;
+	/**
+	 * A zigzag varint scale followed by a {@link #BIG_INTEGER} unscaled value
+	 */
+	static final byte BIG_DECIMAL = 7;
+	/**
+	 * A length prefixed UTF-8 string
+	 */
+	static final byte STRING = 8;
+	static final byte CHARACTER = 9;
+	/**
+	 * A count followed by that many values
+	 */
+	static final byte ARRAY = 10;
+	/**
+	 * A count followed by that many key indexes, each followed by a value
+	 */
+	static final byte MAP = 11;
+	/**
+	 * A length prefixed UTF-8 string that describes the value following it
+	 */
+	static final byte COMMENT = 12;
+
+	private BinaryFormat() { }
+
+}
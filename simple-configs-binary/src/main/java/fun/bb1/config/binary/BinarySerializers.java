@@ -0,0 +1,21 @@
+package fun.bb1.config.binary;
+
+import java.nio.ByteBuffer;
+
+import fun.bb1.config.v2.serializer.InlineSerializer;
+
+public final class BinarySerializers {
+	/**
+	 * Registers a serializer to allow binary documents to be used for configuration
+	 *
+	 * @apiNote This also registers the {@link BinaryAdapter}
+	 */
+	public static final void registerSerializers() {
+		final BinaryAdapter adapter = new BinaryAdapter();
+		adapter.register();
+		new InlineSerializer<ByteBuffer>((p)->adapter.translate(p), (b)->adapter.translate(b)).handlingSubtypes().register(ByteBuffer.class); // instances are always of a subclass, such as a heap buffer
+	}
+
+	private BinarySerializers() { }
+
+}
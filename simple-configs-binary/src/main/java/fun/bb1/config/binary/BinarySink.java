@@ -0,0 +1,163 @@
+package fun.bb1.config.binary;
+
+import static fun.bb1.config.binary.BinaryFormat.ARRAY;
+import static fun.bb1.config.binary.BinaryFormat.MAP;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import fun.bb1.config.v2.adapter.IConfigurationSink;
+/**
+ * Encodes values into the format described by {@link BinaryFormat} as they are received, without building a {@link fun.bb1.objects.Primitive} first
+ * <br>
+ * The key table comes before the value, so the document is only handed to the output once it is complete and the sink is {@link #flush() flushed}
+ */
+final class BinarySink implements IConfigurationSink {
+	
+	private final @NotNull BinaryEncoder encoder = new BinaryEncoder();
+	private final @NotNull DocumentOutput output;
+	private final @NotNull Deque<Frame> frames = new ArrayDeque<Frame>();
+	private @Nullable String key;
+	private @Nullable String comment;
+	private boolean written = false;
+	private boolean flushed = false;
+	
+	BinarySink(@NotNull final DocumentOutput output) {
+		this.output = output;
+	}
+
+	@Override
+	public void beginObject() throws IOException {
+		this.beginValue();
+		this.frames.push(new Frame(true, this.encoder.beginContainer(MAP)));
+	}
+
+	@Override
+	public void endObject() throws IOException {
+		this.endContainer();
+	}
+
+	@Override
+	public void beginArray() throws IOException {
+		this.beginValue();
+		this.frames.push(new Frame(false, this.encoder.beginContainer(ARRAY)));
+	}
+
+	@Override
+	public void endArray() throws IOException {
+		this.endContainer();
+	}
+
+	@Override
+	public void key(@NotNull final String key) throws IOException {
+		this.key = key;
+	}
+
+	@Override
+	public void comment(@NotNull final String comment) throws IOException {
+		this.comment = comment;
+	}
+
+	@Override
+	public void value(@NotNull final String value) throws IOException {
+		this.beginValue();
+		this.encoder.writeString(value);
+	}
+
+	@Override
+	public void value(@NotNull final Number value) throws IOException {
+		this.beginValue();
+		this.encoder.writeNumber(value);
+	}
+
+	@Override
+	public void value(final long value) throws IOException {
+		this.value((Number) value);
+	}
+
+	@Override
+	public void value(final double value) throws IOException {
+		this.value((Number) value);
+	}
+
+	@Override
+	public void value(final boolean value) throws IOException {
+		this.beginValue();
+		this.encoder.writeBoolean(value);
+	}
+
+	@Override
+	public void value(final char value) throws IOException {
+		this.beginValue();
+		this.encoder.writeCharacter(value);
+	}
+
+	@Override
+	public void nullValue() throws IOException {
+		this.beginValue();
+		this.encoder.writeNull();
+	}
+	/**
+	 * Hands the document to the output once it is complete, before then there is nothing that can be written
+	 */
+	@Override
+	public void flush() throws IOException {
+		if (!this.written || !this.frames.isEmpty() || this.flushed) return;
+		this.flushed = true;
+		this.output.write(this.encoder.finish());
+	}
+	/**
+	 * Writes the key and comment of the next value and counts it towards the map or array it is within
+	 */
+	private void beginValue() {
+		final Frame parent = this.frames.peek();
+		final String key = this.key;
+		final String comment = this.comment;
+		this.key = null;
+		this.comment = null;
+		if (parent == null) {
+			if (this.written) throw new IllegalStateException("A document can only have one value");
+			this.written = true;
+		} else {
+			if (parent.map && key == null) throw new IllegalStateException("A value within an object must have a key");
+			if (parent.map) this.encoder.writeKey(key);
+			parent.count++;
+		}
+		if (comment != null && !comment.isBlank()) this.encoder.writeComment(comment);
+	}
+	
+	private void endContainer() {
+		this.key = null;
+		this.comment = null;
+		final Frame frame = this.frames.pop();
+		this.encoder.endContainer(frame.countPosition, frame.count);
+	}
+	
+	private static final class Frame {
+		
+		private final boolean map;
+		private final int countPosition;
+		private int count = 0;
+		
+		private Frame(final boolean map, final int countPosition) {
+			this.map = map;
+			this.countPosition = countPosition;
+		}
+		
+	}
+	/**
+	 * Where a finished document is written
+	 */
+	@FunctionalInterface
+	static interface DocumentOutput {
+		
+		public void write(@NotNull final ByteBuffer document) throws IOException;
+		
+	}
+	
+}
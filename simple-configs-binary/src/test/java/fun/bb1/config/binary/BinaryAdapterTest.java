@@ -0,0 +1,230 @@
+package fun.bb1.config.binary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.gson.JsonElement;
+
+import fun.bb1.config.gson.GsonSerializers;
+import fun.bb1.config.v2.IConfigurable;
+import fun.bb1.config.v2.adapter.AbstractAdapter;
+import fun.bb1.config.v2.adapter.AdapterController;
+import fun.bb1.config.v2.adapter.IConfigurationSink;
+import fun.bb1.config.yaml.YamlSerializers;
+import fun.bb1.objects.Primitive;
+import fun.bb1.yaml.IYamlElement;
+
+class BinaryAdapterTest {
+
+	private static final @NotNull String JSON = """
+			{
+				"name": "config",
+				"count": 3,
+				"negative": -42,
+				"large": 12345678901234,
+				"ratio": 0.25,
+				"enabled": true,
+				"disabled": false,
+				"text": "h\\u00e9llo \\u2603\\n\\"quoted\\"",
+				"tags": ["a", "b", ""],
+				"nested": {
+					"empty": {},
+					"none": [],
+					"list": [1, 2.5, {"deep": false}]
+				}
+			}
+			""";
+	private static final @NotNull String YAML = """
+			name: config
+			count: 3
+			negative: -42
+			large: 12345678901234
+			ratio: 0.25
+			enabled: true
+			text: "h\\u00e9llo \\u2603\\n"
+			quoted: "true"
+			tags:
+			  - a
+			  - b
+			  - ""
+			nested:
+			  empty: {}
+			  none: []
+			  list:
+			    - 1
+			    - 2.5
+			    - deep: false
+			""";
+
+	private final @NotNull BinaryAdapter binary = new BinaryAdapter();
+
+	@BeforeAll
+	static void registerAdapters() {
+		BinarySerializers.registerSerializers();
+		GsonSerializers.registerSerializers();
+		YamlSerializers.registerSerializers();
+	}
+
+	@Test
+	void roundTripsJsonDocuments() throws IOException {
+		final AbstractAdapter<JsonElement> gson = AdapterController.getAdapterFor(JsonElement.class);
+		final Primitive primitive = gson.readFrom(new StringReader(JSON));
+		assertNotNull(primitive);
+		final Primitive decoded = this.binary.readFrom(this.binary.translate(primitive));
+		assertNotNull(decoded);
+		assertEquals(gson.convertFromString(JSON), gson.translate(decoded));
+	}
+
+	@Test
+	void roundTripsYamlDocuments() throws IOException {
+		final AbstractAdapter<IYamlElement> yaml = AdapterController.getAdapterFor(IYamlElement.class);
+		final Primitive primitive = yaml.readFrom(new StringReader(YAML));
+		assertNotNull(primitive);
+		final Primitive decoded = this.binary.readFrom(this.binary.translate(primitive));
+		assertNotNull(decoded);
+		assertEquals(writeWithSink(yaml, primitive), writeWithSink(yaml, decoded));
+	}
+
+	@Test
+	void roundTripsThroughStreamsAndStrings() throws IOException {
+		final AbstractAdapter<JsonElement> gson = AdapterController.getAdapterFor(JsonElement.class);
+		final ByteBuffer encoded = this.binary.translate(gson.readFrom(new StringReader(JSON)));
+		final byte[] bytes = toBytes(encoded);
+		assertEquals(gson.convertFromString(JSON), gson.translate(this.binary.readFrom(new ByteArrayInputStream(bytes))));
+		assertEquals(gson.convertFromString(JSON), gson.translate(this.binary.translate(this.binary.convertFromString(this.binary.convertToString(encoded)))));
+	}
+
+	@Test
+	void roundTripsThroughSinks() throws IOException {
+		final AbstractAdapter<JsonElement> gson = AdapterController.getAdapterFor(JsonElement.class);
+		final Primitive primitive = gson.readFrom(new StringReader(JSON));
+		assertTrue(this.binary.supportsSinks());
+		final Primitive decoded = this.binary.readFrom(this.binary.convertFromString(writeWithSink(this.binary, primitive)));
+		assertNotNull(decoded);
+		assertEquals(gson.convertFromString(JSON), gson.translate(decoded));
+	}
+
+	@Test
+	void convertsFilesToAndFromJson(@TempDir final Path directory) throws IOException {
+		final Path source = directory.resolve("source.json");
+		final Path encoded = directory.resolve("encoded.bin");
+		final Path decoded = directory.resolve("decoded.json");
+		Files.writeString(source, JSON);
+		assertTrue(AdapterController.convert(JsonElement.class, source, ByteBuffer.class, encoded));
+		assertTrue(Arrays.equals(BinaryFormat.MAGIC, Arrays.copyOf(Files.readAllBytes(encoded), BinaryFormat.MAGIC.length)));
+		assertTrue(AdapterController.convert(ByteBuffer.class, encoded, JsonElement.class, decoded));
+		final AbstractAdapter<JsonElement> gson = AdapterController.getAdapterFor(JsonElement.class);
+		assertEquals(gson.convertFromString(JSON), gson.convertFromString(Files.readString(decoded)));
+	}
+
+	@Test
+	void readsEmptyDocumentsAsNull() throws IOException {
+		assertNull(this.binary.readFrom(ByteBuffer.allocate(0)));
+		assertNull(this.binary.readFrom(new ByteArrayInputStream(new byte[0])));
+	}
+
+	@Test
+	void rejectsTruncatedDocuments() throws IOException {
+		final AbstractAdapter<JsonElement> gson = AdapterController.getAdapterFor(JsonElement.class);
+		final byte[] bytes = toBytes(this.binary.translate(gson.readFrom(new StringReader(JSON))));
+		for (int length = 1; length < bytes.length; length++) {
+			final byte[] truncated = Arrays.copyOf(bytes, length);
+			assertThrows(IOException.class, ()->this.binary.readFrom(ByteBuffer.wrap(truncated)), "Truncated to " + length + " bytes");
+			assertThrows(IOException.class, ()->this.binary.readFrom(new ByteArrayInputStream(truncated)), "Truncated to " + length + " bytes");
+		}
+	}
+
+	@Test
+	void rejectsCorruptDocuments() throws IOException {
+		final byte[] scalar = toBytes(this.binary.translate(new Primitive(true))); // the magic, the version, an empty key table and the value
+		final byte[] magic = scalar.clone();
+		magic[0] = 'X';
+		assertThrows(IOException.class, ()->this.binary.readFrom(ByteBuffer.wrap(magic)));
+		final byte[] version = scalar.clone();
+		version[BinaryFormat.MAGIC.length] = BinaryFormat.VERSION + 1;
+		assertThrows(IOException.class, ()->this.binary.readFrom(ByteBuffer.wrap(version)));
+		final byte[] tag = scalar.clone();
+		tag[tag.length - 1] = 99;
+		assertThrows(IOException.class, ()->this.binary.readFrom(ByteBuffer.wrap(tag)));
+		final byte[] length = toBytes(this.binary.translate(new Primitive("config")));
+		length[length.length - "config".length() - 1] = 0x7F; // longer than the rest of the document
+		assertThrows(IOException.class, ()->this.binary.readFrom(ByteBuffer.wrap(length)));
+		final byte[] text = "{\"name\": \"config\"}".getBytes(StandardCharsets.UTF_8);
+		assertThrows(IOException.class, ()->this.binary.readFrom(ByteBuffer.wrap(text)));
+	}
+
+	@Test
+	void readsCorruptFilesAsNull(@TempDir final Path directory) throws IOException {
+		final Path path = directory.resolve("corrupt.bin");
+		final byte[] bytes = toBytes(this.binary.translate(new Primitive("config")));
+		Files.write(path, Arrays.copyOf(bytes, bytes.length - 1));
+		assertNull(this.binary.readFromFile(path));
+	}
+
+	@Test
+	void keepsUnchangedConfigurationFiles(@TempDir final Path directory) throws IOException {
+		final AbstractAdapter<ByteBuffer> adapter = AdapterController.getAdapterFor(ByteBuffer.class);
+		final Path path = directory.resolve("settings.bin");
+		final Settings settings = new Settings();
+		adapter.setSkipUnchangedWrites(true, false);
+		try {
+			final long performed = adapter.getPerformedWrites();
+			final long skipped = adapter.getSkippedWrites();
+			assertTrue(settings.serializeToFile(ByteBuffer.class, path, null));
+			assertEquals(performed + 1, adapter.getPerformedWrites());
+			assertEquals(skipped, adapter.getSkippedWrites());
+			assertTrue(settings.serializeToFile(ByteBuffer.class, path, null)); // unchanged, so the file must be left as it was
+			assertEquals(performed + 1, adapter.getPerformedWrites());
+			assertEquals(skipped + 1, adapter.getSkippedWrites());
+			final Settings read = new Settings();
+			read.count = 0;
+			read.name = null;
+			read.deserializeFromFile(ByteBuffer.class, path, null);
+			assertEquals(settings.count, read.count);
+			assertEquals(settings.name, read.name);
+		} finally {
+			adapter.setSkipUnchangedWrites(false, false);
+		}
+	}
+
+	private static @NotNull String writeWithSink(@NotNull final AbstractAdapter<?> adapter, @NotNull final Primitive primitive) throws IOException {
+		final StringWriter writer = new StringWriter();
+		final IConfigurationSink sink = adapter.openSink(writer);
+		assertNotNull(sink);
+		sink.value(primitive);
+		sink.flush();
+		return writer.toString();
+	}
+
+	private static @NotNull byte[] toBytes(@NotNull final ByteBuffer buffer) {
+		final byte[] bytes = new byte[buffer.remaining()];
+		buffer.duplicate().get(bytes);
+		return bytes;
+	}
+
+	static final class Settings implements IConfigurable {
+
+		int count = 3;
+		String name = "config";
+
+	}
+
+}
@@ -1,7 +1,14 @@
 package fun.bb1.config.gson;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.regex.Pattern;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -14,15 +21,20 @@ import com.google.gson.JsonNull;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
-import fun.bb1.config.adapter.AbstractAdapter;
+import fun.bb1.config.v2.adapter.AbstractAdapter;
+import fun.bb1.config.v2.adapter.IConfigurationSink;
 import fun.bb1.objects.Primitive;
 import fun.bb1.objects.PrimitiveMap;
 import fun.bb1.objects.Tuple;
 
 public class GsonAdapter extends AbstractAdapter<JsonElement> {
 	
-	private static final @NotNull String COMMENT_PREFIX = "comment-";
+	static final @NotNull String COMMENT_PREFIX = "comment-";
+	private static final @NotNull Pattern INTEGER = Pattern.compile("-?[0-9]+");
 	private final @NotNull Gson gson = new GsonBuilder().setPrettyPrinting().disableHtmlEscaping().create();
 
 	GsonAdapter() {
@@ -35,16 +47,19 @@ public class GsonAdapter extends AbstractAdapter<JsonElement> {
 		if (primitive.isNumber()) return new JsonPrimitive(primitive.getAsNumber());
 		if (primitive.isBoolean()) return new JsonPrimitive(primitive.getAsBoolean());
 		if (primitive.isArray()) {
-			final JsonArray jsonArray = new JsonArray();
-			for (final Primitive primitive2 : primitive.getAsArray()) {
-				if (primitive2 == null) continue;
-				jsonArray.add(this.translate(primitive2));
+			final Primitive[] primitiveArray = primitive.getAsArray();
+			final JsonArray jsonArray = new JsonArray(primitiveArray.length);
+			for (final JsonElement element : this.translateAll(primitiveArray.length, JsonElement[]::new, (i)->primitiveArray[i] != null ? this.translate(primitiveArray[i]) : null)) {
+				if (element == null) continue;
+				jsonArray.add(element);
 			}
 			return jsonArray;
 		}
+		final List<Entry<String, Primitive>> entries = new ArrayList<Entry<String, Primitive>>(primitive.getAsStringBasedMap().entrySet());
+		final JsonElement[] elements = this.translateAll(entries.size(), JsonElement[]::new, (i)->this.translate(entries.get(i).getValue()));
 		final JsonObject jsonObject = new JsonObject();
-		for (final Entry<String, Primitive> entry : primitive.getAsStringBasedMap().entrySet()) {
-			jsonObject.add(entry.getKey(), this.translate(entry.getValue()));
+		for (int i = 0; i < elements.length; i++) {
+			jsonObject.add(entries.get(i).getKey(), elements[i]);
 		}
 		return jsonObject;
 	}
@@ -53,16 +68,14 @@ public class GsonAdapter extends AbstractAdapter<JsonElement> {
 	public @Nullable Primitive translate(@NotNull JsonElement js) {
 		if (js instanceof JsonNull) return null;
 		if (js instanceof final JsonArray jsonArray) {
-			final Primitive[] primitiveArray = new Primitive[jsonArray.size()];
-			for (int i = 0; i < primitiveArray.length; i++) {
-				primitiveArray[i] = this.translate(jsonArray.get(i));
-			}
-			return new Primitive(primitiveArray);
+			return new Primitive(this.translateAll(jsonArray.size(), Primitive[]::new, (i)->this.translate(jsonArray.get(i))));
 		}
 		if (js instanceof final JsonObject jsonObject) {
+			final List<Entry<String, JsonElement>> entries = new ArrayList<Entry<String, JsonElement>>(jsonObject.entrySet());
+			final Primitive[] elements = this.translateAll(entries.size(), Primitive[]::new, (i)->this.translate(entries.get(i).getValue()));
 			final PrimitiveMap<String> primitiveMap = new PrimitiveMap<String>();
-			for (final Entry<String, JsonElement> entry : jsonObject.entrySet()) {
-				primitiveMap.put(entry.getKey(), this.translate(entry.getValue()));
+			for (int i = 0; i < elements.length; i++) {
+				primitiveMap.put(entries.get(i).getKey(), elements[i]);
 			}
 			return new Primitive(primitiveMap);
 		}
@@ -97,11 +110,144 @@ public class GsonAdapter extends AbstractAdapter<JsonElement> {
 		return this.gson.toJson(js);
 	}
 
+	@Override
+	public void writeTo(@NotNull final Writer writer, @NotNull final JsonElement js) throws IOException {
+		final JsonWriter jsonWriter = this.gson.newJsonWriter(writer); // not closed as that would close the writer
+		this.gson.toJson(js, jsonWriter);
+		jsonWriter.flush();
+	}
+
 	@Override
 	public @NotNull JsonElement convertFromString(@NotNull String str) {
 		return JsonParser.parseString(str);
 	}
 
+	@Override
+	public @NotNull IConfigurationSink openSink(@NotNull final Writer writer) throws IOException {
+		return new GsonConfigurationSink(this.gson.newJsonWriter(writer));
+	}
+
+	@Override
+	public boolean supportsSinks() {
+		return true;
+	}
+
+	@Override
+	public @Nullable Primitive readFrom(@NotNull final Reader reader) throws IOException {
+		final JsonReader jsonReader = new JsonReader(reader); // not closed as that would close the reader
+		jsonReader.setLenient(true); // as lenient as JsonParser
+		return this.read(jsonReader);
+	}
+	/**
+	 * Reads the next value from the reader, building the {@link Primitive} without an intermediate {@link JsonElement}
+	 */
+	private @Nullable Primitive read(@NotNull final JsonReader reader) throws IOException {
+		switch (reader.peek()) {
+			case BEGIN_ARRAY: {
+				final List<Primitive> primitives = new ArrayList<Primitive>();
+				reader.beginArray();
+				while (reader.hasNext()) {
+					primitives.add(this.read(reader));
+				}
+				reader.endArray();
+				return new Primitive(primitives.toArray(Primitive[]::new));
+			}
+			case BEGIN_OBJECT: {
+				final PrimitiveMap<String> primitiveMap = new PrimitiveMap<String>();
+				reader.beginObject();
+				while (reader.hasNext()) {
+					final String key = reader.nextName();
+					primitiveMap.put(key, this.read(reader));
+				}
+				reader.endObject();
+				return new Primitive(primitiveMap);
+			}
+			case BOOLEAN:
+				return new Primitive(reader.nextBoolean());
+			case NUMBER:
+				return new Primitive(parseNumber(reader.nextString()));
+			case NULL:
+				reader.nextNull();
+				return null;
+			case END_DOCUMENT:
+				return null;
+			default:
+				return new Primitive(reader.nextString());
+		}
+	}
+	
+	@Override
+	public void readTo(@NotNull final Reader reader, @NotNull final IConfigurationSink sink) throws IOException {
+		final JsonReader jsonReader = new JsonReader(reader); // not closed as that would close the reader
+		jsonReader.setLenient(true);
+		if (jsonReader.peek() != JsonToken.END_DOCUMENT) this.readTo(jsonReader, sink);
+	}
+	/**
+	 * Passes the next value from the reader to the sink, comment entries written by {@link #translateMap(Map)} are passed on as comments
+	 */
+	private void readTo(@NotNull final JsonReader reader, @NotNull final IConfigurationSink sink) throws IOException {
+		switch (reader.peek()) {
+			case BEGIN_ARRAY:
+				sink.beginArray();
+				reader.beginArray();
+				while (reader.hasNext()) {
+					this.readTo(reader, sink);
+				}
+				reader.endArray();
+				sink.endArray();
+				return;
+			case BEGIN_OBJECT: {
+				sink.beginObject();
+				reader.beginObject();
+				String commentKey = null; // held until the next key shows if it is really a comment
+				String comment = null;
+				while (reader.hasNext()) {
+					final String key = reader.nextName();
+					if (commentKey != null) {
+						if (key.equals(commentKey.substring(COMMENT_PREFIX.length()))) {
+							sink.comment(comment);
+						} else {
+							sink.key(commentKey);
+							sink.value(comment);
+						}
+						commentKey = null;
+					}
+					if (key.startsWith(COMMENT_PREFIX) && reader.peek() == JsonToken.STRING) {
+						commentKey = key;
+						comment = reader.nextString();
+						continue;
+					}
+					sink.key(key);
+					this.readTo(reader, sink);
+				}
+				if (commentKey != null) {
+					sink.key(commentKey);
+					sink.value(comment);
+				}
+				reader.endObject();
+				sink.endObject();
+				return;
+			}
+			case BOOLEAN:
+				sink.value(reader.nextBoolean());
+				return;
+			case NUMBER:
+				sink.value(parseNumber(reader.nextString()));
+				return;
+			case NULL:
+				reader.nextNull();
+				sink.nullValue();
+				return;
+			default:
+				sink.value(reader.nextString());
+		}
+	}
+	
+	private static @NotNull Number parseNumber(@NotNull final String number) {
+		if (!INTEGER.matcher(number).matches()) return Double.parseDouble(number); // includes NaN and Infinity when lenient
+		return number.length() < 19 ? Long.parseLong(number) : new BigInteger(number);
+	}
+
 	@Override
 	public @NotNull String getRecommendedFileExtension() {
 		return ".conf.json";
@@ -0,0 +1,115 @@
+package fun.bb1.config.gson;
+
+import java.io.IOException;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.google.gson.stream.JsonWriter;
+
+import fun.bb1.config.v2.adapter.IConfigurationSink;
+/**
+ * Writes values straight to a {@link JsonWriter}, comments are written as a sibling entry in the same way as {@link GsonAdapter#translateMap(java.util.Map)}
+ * 
+ * @apiNote Comments on values within arrays are dropped as there is no key to place them under
+ */
+final class GsonConfigurationSink implements IConfigurationSink {
+	
+	private final @NotNull JsonWriter writer;
+	private @Nullable String key;
+	private @Nullable String comment;
+	
+	GsonConfigurationSink(@NotNull final JsonWriter writer) {
+		this.writer = writer;
+	}
+	/**
+	 * Writes the held key, and its comment, now that it has a value
+	 */
+	private void beginValue() throws IOException {
+		final String key = this.key;
+		final String comment = this.comment;
+		this.key = null;
+		this.comment = null;
+		if (key == null) return;
+		if (comment != null && !comment.isBlank()) this.writer.name(GsonAdapter.COMMENT_PREFIX + key).value(comment);
+		this.writer.name(key);
+	}
+
+	@Override
+	public void beginObject() throws IOException {
+		this.beginValue();
+		this.writer.beginObject();
+	}
+
+	@Override
+	public void endObject() throws IOException {
+		this.key = null;
+		this.comment = null;
+		this.writer.endObject();
+	}
+
+	@Override
+	public void beginArray() throws IOException {
+		this.beginValue();
+		this.writer.beginArray();
+	}
+
+	@Override
+	public void endArray() throws IOException {
+		this.key = null;
+		this.comment = null;
+		this.writer.endArray();
+	}
+
+	@Override
+	public void key(@NotNull final String key) {
+		this.key = key;
+	}
+
+	@Override
+	public void comment(@NotNull final String comment) {
+		this.comment = comment;
+	}
+
+	@Override
+	public void value(@NotNull final String value) throws IOException {
+		this.beginValue();
+		this.writer.value(value);
+	}
+
+	@Override
+	public void value(@NotNull final Number value) throws IOException {
+		this.beginValue();
+		this.writer.value(value);
+	}
+
+	@Override
+	public void value(final long value) throws IOException {
+		this.beginValue();
+		this.writer.value(value);
+	}
+
+	@Override
+	public void value(final double value) throws IOException {
+		this.beginValue();
+		this.writer.value(value);
+	}
+
+	@Override
+	public void value(final boolean value) throws IOException {
+		this.beginValue();
+		this.writer.value(value);
+	}
+
+	@Override
+	public void nullValue() throws IOException {
+		this.beginValue();
+		this.writer.nullValue();
+	}
+
+	@Override
+	public void flush() throws IOException {
+		this.writer.flush();
+	}
+	
+}
@@ -6,7 +6,7 @@ import com.google.gson.JsonNull;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
 
-import fun.bb1.config.serializer.InlineSerializer;
+import fun.bb1.config.v2.serializer.InlineSerializer;
 
 public final class GsonSerializers {
 	/**
@@ -0,0 +1,333 @@
+package fun.bb1.config.processor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ *
+ * Copyright 2022 BradBot_1
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ * http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ * Generates an {@code IConfigurableBinder} for every class with fields annotated with {@code Configurable}
+ * <br>
+ * The binder is placed in the same package as the class and reads and writes the fields directly, so every configurable field (including inherited ones) must be reachable from that package
+ * <br>
+ * Every binder is listed in {@code META-INF/services} as a service of {@code IConfigurableBinder}, which is how the binder of a class is found at runtime
+ * <br>
+ * Classes that cannot be bound, such as private, local and anonymous classes, are skipped with a note, they will continue to be bound reflectively
+ */
+@SupportedAnnotationTypes(ConfigurableProcessor.CONFIGURABLE)
+public final class ConfigurableProcessor extends AbstractProcessor {
+
+	static final @NotNull String CONFIGURABLE = "fun.bb1.config.v2.annotations.Configurable";
+	private static final @NotNull String BINDER = "fun.bb1.config.v2.binder.IConfigurableBinder";
+	private static final @NotNull String BINDER_SUFFIX = "_ConfigurableBinder";
+	private static final @NotNull String CONTROLLER = "fun.bb1.config.v2.binder.BinderController";
+	private static final @NotNull String SERVICES = "META-INF/services/" + BINDER;
+	/**
+	 * The binary names of every binder generated during this compilation
+	 */
+	private final @NotNull Set<String> binders = new TreeSet<String>();
+
+	@Override
+	public @NotNull SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(@NotNull final Set<? extends TypeElement> annotations, @NotNull final RoundEnvironment roundEnv) {
+		if (roundEnv.processingOver()) {
+			this.writeServices();
+			return false;
+		}
+		final Set<TypeElement> types = new LinkedHashSet<TypeElement>();
+		for (final TypeElement annotation : annotations) {
+			for (final VariableElement field : ElementFilter.fieldsIn(roundEnv.getElementsAnnotatedWith(annotation))) {
+				if (field.getEnclosingElement() instanceof final TypeElement type && type.getKind() == ElementKind.CLASS) types.add(type);
+			}
+		}
+		for (final TypeElement type : types) {
+			this.generate(type);
+		}
+		return false; // leave the annotation for anything else interested in it
+	}
+
+	private void generate(@NotNull final TypeElement type) {
+		final PackageElement pkg = this.processingEnv.getElementUtils().getPackageOf(type);
+		if (type.getNestingKind() == NestingKind.LOCAL || type.getNestingKind() == NestingKind.ANONYMOUS) {
+			this.processingEnv.getMessager().printMessage(Kind.NOTE, "Not generating a binder as the class is " + (type.getNestingKind() == NestingKind.LOCAL ? "local" : "anonymous") + ", it will be bound reflectively", type);
+			return;
+		}
+		if (!this.isReachable(type, pkg)) {
+			this.processingEnv.getMessager().printMessage(Kind.NOTE, "Not generating a binder as the class is private, it will be bound reflectively", type);
+			return;
+		}
+		final List<TypeElement> hierarchy = new ArrayList<TypeElement>();
+		for (TypeElement current = type; current != null; current = this.getSuperclass(current)) {
+			hierarchy.add(0, current); // superclasses first, matching the order fields are reflected in
+		}
+		final List<VariableElement> fields = new ArrayList<VariableElement>();
+		for (final TypeElement current : hierarchy) {
+			for (final VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+				final Set<Modifier> modifiers = field.getModifiers();
+				if (modifiers.contains(Modifier.FINAL) || modifiers.contains(Modifier.TRANSIENT)) continue;
+				if (this.getConfigurable(field) == null) continue;
+				if (!this.isReachable(field, pkg)) {
+					this.processingEnv.getMessager().printMessage(Kind.NOTE, "Not generating a binder for " + type.getQualifiedName() + " as this field cannot be reached from its package, it will be bound reflectively", field);
+					return;
+				}
+				fields.add(field);
+			}
+		}
+		final String binaryName = this.processingEnv.getElementUtils().getBinaryName(type).toString();
+		final String binderName = binaryName + BINDER_SUFFIX;
+		final String binderSimpleName = pkg.isUnnamed() ? binderName : binderName.substring(pkg.getQualifiedName().length() + 1);
+		final String typeName = this.processingEnv.getTypeUtils().erasure(type.asType()).toString();
+		try (final Writer writer = this.processingEnv.getFiler().createSourceFile(binderName, type).openWriter()) {
+			if (!pkg.isUnnamed()) writer.write("package " + pkg.getQualifiedName() + ";\n\n");
+			writer.write("@javax.annotation.processing.Generated(\"" + ConfigurableProcessor.class.getName() + "\")\n");
+			writer.write("@SuppressWarnings({ \"rawtypes\", \"unchecked\" })\n");
+			writer.write("public final class " + binderSimpleName + " implements " + BINDER + "<" + typeName + "> {\n\n");
+			final StringBuilder keys = new StringBuilder();
+			final StringBuilder aliases = new StringBuilder();
+			final StringBuilder comments = new StringBuilder();
+			final StringBuilder classes = new StringBuilder();
+			final StringBuilder genericTypes = new StringBuilder();
+			final StringBuilder immutables = new StringBuilder();
+			final StringBuilder getters = new StringBuilder();
+			final StringBuilder setters = new StringBuilder();
+			for (int i = 0; i < fields.size(); i++) {
+				final VariableElement field = fields.get(i);
+				final AnnotationMirror configurable = this.getConfigurable(field);
+				final String key = this.getString(configurable, "value");
+				final String comment = this.getString(configurable, "comment");
+				final TypeMirror fieldType = this.processingEnv.getTypeUtils().erasure(field.asType());
+				final TypeMirror genericType = this.processingEnv.getTypeUtils().asMemberOf((DeclaredType) type.asType(), field); // an inherited field has the type arguments the class gives its superclass
+				final String declaringTypeName = this.processingEnv.getTypeUtils().erasure(field.getEnclosingElement().asType()).toString();
+				final String target = (field.getModifiers().contains(Modifier.STATIC) ? declaringTypeName : "((" + declaringTypeName + ") instance)") + "." + field.getSimpleName(); // through the declaring type, so a field hidden by a subclass is still reached
+				final String separator = i == 0 ? "" : ", ";
+				keys.append(separator).append(this.processingEnv.getElementUtils().getConstantExpression(key.isEmpty() ? field.getSimpleName().toString() : key));
+				final List<String> fieldAliases = this.getStrings(configurable, "aliases");
+				aliases.append(separator).append(fieldAliases.isEmpty() ? "new String[0]" : "new String[] { ");
+				for (int j = 0; j < fieldAliases.size(); j++) {
+					aliases.append(j == 0 ? "" : ", ").append(this.processingEnv.getElementUtils().getConstantExpression(fieldAliases.get(j)));
+				}
+				if (!fieldAliases.isEmpty()) aliases.append(" }");
+				comments.append(separator).append(comment.isEmpty() ? "null" : this.processingEnv.getElementUtils().getConstantExpression(comment));
+				classes.append(separator).append(fieldType).append(".class");
+				genericTypes.append(separator).append(this.getTypeExpression(genericType, new HashSet<TypeParameterElement>())); // serialized with the serializers of its type arguments, so the binder needs the generic type
+				immutables.append(separator).append(this.getBoolean(configurable, "immutable"));
+				getters.append("\t\t\tcase ").append(i).append(": return ").append(target).append(";\n");
+				setters.append("\t\t\tcase ").append(i).append(": ").append(target).append(" = (").append(this.box(fieldType)).append(") value; return;\n");
+			}
+			writer.write("\tprivate static final String[] KEYS = { " + keys + " };\n");
+			writer.write("\tprivate static final String[][] ALIASES = { " + aliases + " };\n");
+			writer.write("\tprivate static final String[] COMMENTS = { " + comments + " };\n");
+			writer.write("\tprivate static final Class<?>[] TYPES = { " + classes + " };\n");
+			writer.write("\tprivate static final java.lang.reflect.Type[] GENERIC_TYPES = { " + genericTypes + " };\n");
+			writer.write("\tprivate static final boolean[] IMMUTABLE = { " + immutables + " };\n\n");
+			writer.write("\tpublic " + binderSimpleName + "() { }\n\n");
+			writer.write("\t@Override\n\tpublic int getFieldCount() {\n\t\treturn KEYS.length;\n\t}\n\n");
+			writer.write("\t@Override\n\tpublic String getKey(final int index) {\n\t\treturn KEYS[index];\n\t}\n\n");
+			writer.write("\t@Override\n\tpublic String[] getAliases(final int index) {\n\t\treturn ALIASES[index].clone();\n\t}\n\n");
+			writer.write("\t@Override\n\tpublic String getComment(final int index) {\n\t\treturn COMMENTS[index];\n\t}\n\n");
+			writer.write("\t@Override\n\tpublic Class<?> getType(final int index) {\n\t\treturn TYPES[index];\n\t}\n\n");
+			writer.write("\t@Override\n\tpublic java.lang.reflect.Type getGenericType(final int index) {\n\t\treturn GENERIC_TYPES[index];\n\t}\n\n");
+			writer.write("\t@Override\n\tpublic boolean isImmutable(final int index) {\n\t\treturn IMMUTABLE[index];\n\t}\n\n");
+			writer.write("\t@Override\n\tpublic Object get(final " + typeName + " instance, final int index) {\n\t\tswitch (index) {\n" + getters + "\t\t\tdefault: throw new IndexOutOfBoundsException(index);\n\t\t}\n\t}\n\n");
+			writer.write("\t@Override\n\tpublic void set(final " + typeName + " instance, final int index, final Object value) {\n\t\tswitch (index) {\n" + setters + "\t\t\tdefault: throw new IndexOutOfBoundsException(index);\n\t\t}\n\t}\n\n");
+			writer.write("}\n");
+		} catch (IOException e) {
+			this.processingEnv.getMessager().printMessage(Kind.ERROR, "Failed to write the binder: " + e.getMessage(), type);
+			return;
+		}
+		this.binders.add(binderName);
+	}
+	/**
+	 * Lists every generated binder as a service, alongside those listed by a previous compilation into the same output
+	 */
+	private void writeServices() {
+		if (this.binders.isEmpty()) return;
+		final Set<String> services = new TreeSet<String>(this.binders);
+		try {
+			final FileObject existing = this.processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", SERVICES);
+			try (final BufferedReader reader = new BufferedReader(existing.openReader(true))) {
+				for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+					final int comment = line.indexOf('#');
+					final String service = (comment < 0 ? line : line.substring(0, comment)).trim();
+					if (!service.isEmpty()) services.add(service);
+				}
+			}
+		} catch (IOException e) { } // nothing was listed before
+		try (final Writer writer = this.processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", SERVICES).openWriter()) {
+			for (final String service : services) {
+				writer.write(service + "\n");
+			}
+		} catch (IOException e) {
+			this.processingEnv.getMessager().printMessage(Kind.ERROR, "Failed to list the binders as services: " + e.getMessage());
+		}
+	}
+	/**
+	 * @return If the element and everything enclosing it can be referenced from a class in the provided package
+	 */
+	private boolean isReachable(@NotNull final Element element, @NotNull final PackageElement pkg) {
+		for (Element current = element; current != null && current.getKind() != ElementKind.PACKAGE; current = current.getEnclosingElement()) {
+			final Set<Modifier> modifiers = current.getModifiers();
+			if (modifiers.contains(Modifier.PRIVATE)) return false;
+			if (modifiers.contains(Modifier.PUBLIC)) continue;
+			if (!this.processingEnv.getElementUtils().getPackageOf(current).equals(pkg)) return false; // package private or protected from elsewhere
+		}
+		return true;
+	}
+
+	/**
+	 * @param visiting The type variables being described, so that a variable bounded by itself (such as {@code T extends Comparable<T>}) is erased rather than recursing forever
+	 * 
+	 * @return An expression that builds the type at runtime without reflection, type variables are described by their bound as that is what they are serialized with
+	 */
+	private @NotNull String getTypeExpression(@NotNull final TypeMirror type, @NotNull final Set<TypeParameterElement> visiting) {
+		switch (type.getKind()) {
+			case ARRAY: {
+				final TypeMirror component = ((ArrayType) type).getComponentType();
+				final String componentExpression = this.getTypeExpression(component, visiting);
+				return componentExpression.endsWith(".class") ? this.getClassLiteral(type) : CONTROLLER + ".arrayType(" + componentExpression + ")";
+			}
+			case DECLARED: {
+				final DeclaredType declared = (DeclaredType) type;
+				if (declared.getTypeArguments().isEmpty()) return this.getClassLiteral(type);
+				final StringBuilder expression = new StringBuilder(CONTROLLER).append(".parameterizedType(").append(this.getClassLiteral(type)).append(", ");
+				final TypeMirror owner = declared.getEnclosingType();
+				if (owner.getKind() == TypeKind.DECLARED) {
+					expression.append(this.getTypeExpression(owner, visiting));
+				} else if (declared.asElement().getEnclosingElement() instanceof final TypeElement enclosing) {
+					expression.append(this.getClassLiteral(enclosing.asType()));
+				} else {
+					expression.append("null");
+				}
+				for (final TypeMirror argument : declared.getTypeArguments()) {
+					expression.append(", ").append(this.getTypeExpression(argument, visiting));
+				}
+				return expression.append(")").toString();
+			}
+			case TYPEVAR: {
+				final TypeVariable variable = (TypeVariable) type;
+				final TypeParameterElement element = (TypeParameterElement) variable.asElement();
+				if (variable.getUpperBound().getKind() == TypeKind.INTERSECTION || !visiting.add(element)) return this.getClassLiteral(type);
+				final String bound = this.getTypeExpression(variable.getUpperBound(), visiting);
+				visiting.remove(element);
+				return bound;
+			}
+			case WILDCARD: {
+				final WildcardType wildcard = (WildcardType) type;
+				final String upperBound = wildcard.getExtendsBound() != null ? this.getTypeExpression(wildcard.getExtendsBound(), visiting) : "java.lang.Object.class";
+				final String lowerBound = wildcard.getSuperBound() != null ? this.getTypeExpression(wildcard.getSuperBound(), visiting) : "null";
+				return CONTROLLER + ".wildcardType(" + upperBound + ", " + lowerBound + ")";
+			}
+			default:
+				return this.getClassLiteral(type);
+		}
+	}
+
+	private @NotNull String getClassLiteral(@NotNull final TypeMirror type) {
+		return this.processingEnv.getTypeUtils().erasure(type) + ".class";
+	}
+
+	private @Nullable TypeElement getSuperclass(@NotNull final TypeElement type) {
+		final TypeMirror superclass = type.getSuperclass();
+		if (superclass.getKind() != TypeKind.DECLARED) return null;
+		final TypeElement element = (TypeElement) ((DeclaredType) superclass).asElement();
+		return element.getQualifiedName().contentEquals("java.lang.Object") ? null : element;
+	}
+
+	private @Nullable AnnotationMirror getConfigurable(@NotNull final Element element) {
+		for (final AnnotationMirror mirror : element.getAnnotationMirrors()) {
+			if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(CONFIGURABLE)) return mirror;
+		}
+		return null;
+	}
+
+	private @NotNull String getString(@NotNull final AnnotationMirror mirror, @NotNull final String name) {
+		final Map<? extends ExecutableElement, ? extends AnnotationValue> values = this.processingEnv.getElementUtils().getElementValuesWithDefaults(mirror);
+		for (final Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : values.entrySet()) {
+			if (entry.getKey().getSimpleName().contentEquals(name)) return (String) entry.getValue().getValue();
+		}
+		return "";
+	}
+
+	private boolean getBoolean(@NotNull final AnnotationMirror mirror, @NotNull final String name) {
+		final Map<? extends ExecutableElement, ? extends AnnotationValue> values = this.processingEnv.getElementUtils().getElementValuesWithDefaults(mirror);
+		for (final Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : values.entrySet()) {
+			if (entry.getKey().getSimpleName().contentEquals(name)) return (Boolean) entry.getValue().getValue();
+		}
+		return false;
+	}
+	
+	private @NotNull List<String> getStrings(@NotNull final AnnotationMirror mirror, @NotNull final String name) {
+		final List<String> strings = new ArrayList<String>();
+		final Map<? extends ExecutableElement, ? extends AnnotationValue> values = this.processingEnv.getElementUtils().getElementValuesWithDefaults(mirror);
+		for (final Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : values.entrySet()) {
+			if (!entry.getKey().getSimpleName().contentEquals(name)) continue;
+			for (final Object value : (List<?>) entry.getValue().getValue()) {
+				strings.add((String) ((AnnotationValue) value).getValue());
+			}
+		}
+		return strings;
+	}
+
+	private @NotNull String box(@NotNull final TypeMirror type) {
+		if (type.getKind().isPrimitive()) return this.processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).getQualifiedName().toString();
+		return type.toString();
+	}
+
+}
@@ -0,0 +1,178 @@
+package fun.bb1.config.processor;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import fun.bb1.config.v2.IConfigurable;
+import fun.bb1.config.v2.binder.BinderController;
+import fun.bb1.config.v2.binder.IConfigurableBinder;
+import fun.bb1.config.v2.serializer.ISerializer;
+import fun.bb1.config.v2.serializer.SerializerController;
+import fun.bb1.objects.Primitive;
+
+class ConfigurableProcessorTest {
+
+	private static final @NotNull String BASE = """
+			package sample;
+			
+			import fun.bb1.config.v2.annotations.Configurable;
+			
+			public class Base<T> {
+				@Configurable T inherited;
+				@Configurable(aliases = "amount") protected int count;
+			}
+			""";
+	private static final @NotNull String SETTINGS = """
+			package sample;
+			
+			import java.util.List;
+			import java.util.Map;
+			import java.util.Set;
+			
+			import fun.bb1.config.v2.annotations.Configurable;
+			
+			public class Settings extends Base<List<String>> {
+				@Configurable("renamed") Map<String, List<Integer>> map;
+				@Configurable(immutable = true) Set<String> names;
+				transient int skipped;
+			
+				public static class Nested {
+					@Configurable(comment = "The values") int[] values;
+					@Configurable String name;
+				}
+			
+				private static class Hidden {
+					@Configurable int hidden;
+				}
+			
+				void bindLater() {
+					class Local {
+						@Configurable int local;
+					}
+					new Object() {
+						@Configurable int anonymous;
+					};
+				}
+			}
+			""";
+
+	@Test
+	void bindsNestedInheritedAndGenericFields(@TempDir final Path directory) throws Exception {
+		try (final URLClassLoader loader = compile(directory)) {
+			final Class<?> settings = loader.loadClass("sample.Settings");
+			final IConfigurableBinder<Object> binder = getBinderFor(settings);
+			assertEquals(4, binder.getFieldCount());
+			assertEquals(List.of("inherited", "count", "renamed", "names"), List.of(binder.getKey(0), binder.getKey(1), binder.getKey(2), binder.getKey(3)));
+			assertArrayEquals(new String[] { "amount" }, binder.getAliases(1));
+			assertEquals(settings.getGenericSuperclass(), BinderController.parameterizedType(settings.getSuperclass(), null, binder.getGenericType(0))); // the type argument given to the superclass
+			assertEquals(int.class, binder.getGenericType(1));
+			assertEquals(settings.getDeclaredField("map").getGenericType(), binder.getGenericType(2));
+			assertEquals(settings.getDeclaredField("names").getGenericType(), binder.getGenericType(3));
+			assertTrue(binder.isImmutable(3));
+			final Object written = settings.getDeclaredConstructor().newInstance();
+			binder.set(written, 0, new ArrayList<String>(List.of("a", "b")));
+			binder.set(written, 1, 3);
+			binder.set(written, 2, new HashMap<String, List<Integer>>(Map.of("x", List.of(1, 2))));
+			binder.set(written, 3, Set.of("name"));
+			final Object read = roundTrip(binder, written, settings.getDeclaredConstructor().newInstance());
+			for (int i = 0; i < binder.getFieldCount(); i++) {
+				assertEquals(binder.get(written, i), binder.get(read, i), binder.getKey(i));
+			}
+		}
+	}
+
+	@Test
+	void bindsNestedClasses(@TempDir final Path directory) throws Exception {
+		try (final URLClassLoader loader = compile(directory)) {
+			final Class<?> nested = loader.loadClass("sample.Settings$Nested");
+			final IConfigurableBinder<Object> binder = getBinderFor(nested);
+			assertEquals(2, binder.getFieldCount());
+			assertEquals("The values", binder.getComment(0));
+			assertEquals(int[].class, binder.getGenericType(0));
+			final Object written = nested.getDeclaredConstructor().newInstance();
+			binder.set(written, 0, new int[] { 1, 2, 3 });
+			binder.set(written, 1, "nested");
+			final Object read = roundTrip(binder, written, nested.getDeclaredConstructor().newInstance());
+			assertArrayEquals((int[]) binder.get(written, 0), (int[]) binder.get(read, 0));
+			assertEquals("nested", binder.get(read, 1));
+		}
+	}
+
+	@Test
+	void skipsClassesThatCannotBeBound(@TempDir final Path directory) throws Exception {
+		try (final URLClassLoader loader = compile(directory)) {
+			assertNull(BinderController.getBinderFor(loader.loadClass("sample.Settings$Hidden")));
+			assertNull(BinderController.getBinderFor(loader.loadClass("sample.Settings$1Local")));
+			assertNull(BinderController.getBinderFor(loader.loadClass("sample.Settings$1")));
+		}
+	}
+	/**
+	 * Compiles the sample classes with the processor
+	 * 
+	 * @return A loader for the compiled classes and their binders
+	 */
+	private static @NotNull URLClassLoader compile(@NotNull final Path directory) throws IOException, URISyntaxException {
+		final Path sources = Files.createDirectories(directory.resolve("src").resolve("sample"));
+		final Path classes = Files.createDirectories(directory.resolve("classes"));
+		Files.writeString(sources.resolve("Base.java"), BASE);
+		Files.writeString(sources.resolve("Settings.java"), SETTINGS);
+		final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+		try (final StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null)) {
+			final List<String> options = List.of("-classpath", Path.of(IConfigurable.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString(), "-d", classes.toString(), "-s", classes.toString());
+			final JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options, null, fileManager.getJavaFileObjects(sources.resolve("Base.java"), sources.resolve("Settings.java")));
+			task.setProcessors(List.of(new ConfigurableProcessor()));
+			assertTrue(task.call(), diagnostics.getDiagnostics().toString());
+		}
+		return new URLClassLoader(new URL[] { classes.toUri().toURL() }, ConfigurableProcessorTest.class.getClassLoader());
+	}
+
+	@SuppressWarnings("unchecked")
+	private static @NotNull IConfigurableBinder<Object> getBinderFor(@NotNull final Class<?> type) {
+		final IConfigurableBinder<?> binder = BinderController.getBinderFor(type);
+		assertNotNull(binder, "No binder was found for " + type.getName());
+		assertEquals(type.getName() + BinderController.BINDER_SUFFIX, binder.getClass().getName());
+		return (IConfigurableBinder<Object>) binder;
+	}
+	/**
+	 * Serializes every field of the written instance with the serializer of its generic type and deserializes it into the read instance
+	 */
+	private static @NotNull Object roundTrip(@NotNull final IConfigurableBinder<Object> binder, @NotNull final Object written, @NotNull final Object read) {
+		for (int i = 0; i < binder.getFieldCount(); i++) {
+			final Type type = binder.getGenericType(i);
+			final ISerializer<Object> serializer = binder.isImmutable(i) ? SerializerController.getImmutableSerializerFor(type) : SerializerController.getSerializerFor(type);
+			assertNotNull(serializer, "No serializer was found for " + type);
+			final Primitive primitive = serializer.serialize(binder.get(written, i));
+			assertNotNull(primitive, binder.getKey(i));
+			binder.set(read, i, serializer.deserialize(primitive));
+		}
+		return read;
+	}
+
+}
@@ -1,12 +1,20 @@
 package fun.bb1.config.yaml;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import fun.bb1.config.adapter.AbstractAdapter;
+import fun.bb1.config.v2.adapter.AbstractAdapter;
+import fun.bb1.config.v2.adapter.IConfigurationSink;
 import fun.bb1.objects.Primitive;
 import fun.bb1.objects.PrimitiveMap;
 import fun.bb1.objects.Tuple;
@@ -31,15 +39,18 @@ public class YamlAdapter extends AbstractAdapter<IYamlElement> {
 		if (primitive.isNumber()) return new YamlPrimitive(primitive.getAsNumber());
 		if (primitive.isBoolean()) return new YamlPrimitive(primitive.getAsBoolean());
 		if (primitive.isArray()) {
+			final Primitive[] primitiveArray = primitive.getAsArray();
 			final YamlArray ymlonArray = new YamlArray();
-			for (final Primitive primitive2 : primitive.getAsArray()) {
-				ymlonArray.add(this.translate(primitive2));
+			for (final IYamlElement element : this.translateAll(primitiveArray.length, IYamlElement[]::new, (i)->this.translate(primitiveArray[i]))) {
+				ymlonArray.add(element);
 			}
 			return ymlonArray;
 		}
+		final List<Entry<String, Primitive>> entries = new ArrayList<Entry<String, Primitive>>(primitive.getAsStringBasedMap().entrySet());
+		final IYamlElement[] elements = this.translateAll(entries.size(), IYamlElement[]::new, (i)->this.translate(entries.get(i).getValue()));
 		final YamlObject ymlonObject = new YamlObject();
-		for (final Entry<String, Primitive> entry : primitive.getAsStringBasedMap().entrySet()) {
-			ymlonObject.add(entry.getKey(), this.translate(entry.getValue()));
+		for (int i = 0; i < elements.length; i++) {
+			ymlonObject.add(entries.get(i).getKey(), elements[i]);
 		}
 		return ymlonObject;
 	}
@@ -47,16 +58,17 @@ public class YamlAdapter extends AbstractAdapter<IYamlElement> {
 	@Override
 	public @Nullable Primitive translate(@NotNull IYamlElement yml) {
 		if (yml instanceof final YamlArray ymlArray) {
-			final Primitive[] primitiveArray = new Primitive[ymlArray.getSize()];
-			for (int i = 0; i < primitiveArray.length; i++) {
-				primitiveArray[i] = this.translate(ymlArray.get(i));
-			}
-			return new Primitive(primitiveArray);
+			return new Primitive(this.translateAll(ymlArray.getSize(), Primitive[]::new, (i)->this.translate(ymlArray.get(i))));
 		}
 		if (yml instanceof final YamlObject ymlObject) {
-			final PrimitiveMap<String> primitiveMap = new PrimitiveMap<String>();
+			final List<YamlPrimitive> keys = new ArrayList<YamlPrimitive>();
 			for (final YamlPrimitive key : ymlObject) {
-				primitiveMap.put(key.getAsString(), this.translate(ymlObject.get(key)));
+				keys.add(key);
+			}
+			final Primitive[] elements = this.translateAll(keys.size(), Primitive[]::new, (i)->this.translate(ymlObject.get(keys.get(i))));
+			final PrimitiveMap<String> primitiveMap = new PrimitiveMap<String>();
+			for (int i = 0; i < elements.length; i++) {
+				primitiveMap.put(keys.get(i).getAsString(), elements[i]);
 			}
 			return new Primitive(primitiveMap);
 		}
@@ -86,9 +98,23 @@ public class YamlAdapter extends AbstractAdapter<IYamlElement> {
 		return root;
 	}
 
+	/**
+	 * @apiNote Written by the same emitter as {@link #writeTo(Writer, IYamlElement)} so that files and strings share one format
+	 */
 	@Override
 	public @NotNull String convertToString(@NotNull IYamlElement primitive) {
-		return this.yaml.toYaml(primitive);
+		final StringWriter writer = new StringWriter();
+		try {
+			this.writeTo(writer, primitive);
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e); // a StringWriter never throws
+		}
+		return writer.toString();
+	}
+
+	@Override
+	public void writeTo(@NotNull final Writer writer, @NotNull final IYamlElement yml) throws IOException {
+		new YamlStreamWriter(writer).write(yml);
 	}
 
 	@Override
@@ -96,6 +122,26 @@ public class YamlAdapter extends AbstractAdapter<IYamlElement> {
 		return this.yaml.parseString(primitive, YamlObject.class);
 	}
 
+	@Override
+	public @NotNull IConfigurationSink openSink(@NotNull final Writer writer) {
+		return new YamlStreamWriter(writer);
+	}
+
+	@Override
+	public boolean supportsSinks() {
+		return true;
+	}
+
+	@Override
+	public @Nullable Primitive readFrom(@NotNull final Reader reader) throws IOException {
+		return new YamlStreamReader(reader).read();
+	}
+
+	@Override
+	public void readTo(@NotNull final Reader reader, @NotNull final IConfigurationSink sink) throws IOException {
+		new YamlStreamReader(reader, true).readTo(sink);
+	}
+
 	@Override
 	public @NotNull String getRecommendedFileExtension() {
 		return ".conf.yml";
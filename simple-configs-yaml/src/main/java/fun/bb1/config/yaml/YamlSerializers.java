@@ -1,6 +1,6 @@
 package fun.bb1.config.yaml;
 
-import fun.bb1.config.serializer.InlineSerializer;
+import fun.bb1.config.v2.serializer.InlineSerializer;
 import fun.bb1.yaml.IYamlElement;
 import fun.bb1.yaml.YamlArray;
 import fun.bb1.yaml.YamlObject;
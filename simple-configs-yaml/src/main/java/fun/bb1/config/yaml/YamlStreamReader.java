@@ -0,0 +1,243 @@
+package fun.bb1.config.yaml;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.comments.CommentType;
+import org.yaml.snakeyaml.events.AliasEvent;
+import org.yaml.snakeyaml.events.CommentEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.MappingEndEvent;
+import org.yaml.snakeyaml.events.MappingStartEvent;
+import org.yaml.snakeyaml.events.NodeEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.events.SequenceEndEvent;
+import org.yaml.snakeyaml.events.SequenceStartEvent;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import fun.bb1.config.v2.adapter.IConfigurationSink;
+import fun.bb1.objects.Primitive;
+import fun.bb1.objects.PrimitiveMap;
+/**
+ * Reads the first document of a YAML stream straight into a {@link Primitive} from the parser events, without building a node or {@link fun.bb1.yaml.IYamlElement} tree
+ * <br>
+ * Plain scalars are resolved with the same rules as snakeyaml, anchors and aliases are supported
+ * <br>
+ * The document can also be passed straight to a {@link IConfigurationSink} with {@link #readTo(IConfigurationSink)}, alongside the comments above its values
+ */
+final class YamlStreamReader {
+	
+	private final @NotNull Resolver resolver = new Resolver();
+	private final @NotNull Map<String, Primitive> anchors = new HashMap<String, Primitive>();
+	private final @NotNull Iterator<Event> events;
+	/**
+	 * The block comment above the next value, only read when comments are processed
+	 */
+	private @Nullable String comment;
+	
+	YamlStreamReader(@NotNull final Reader reader) {
+		this(reader, false);
+	}
+	/**
+	 * @param comments If comments should be read, so they can be passed to a sink by {@link #readTo(IConfigurationSink)}
+	 */
+	YamlStreamReader(@NotNull final Reader reader, final boolean comments) {
+		final LoaderOptions options = new LoaderOptions();
+		options.setProcessComments(comments);
+		this.events = new Yaml(options).parse(reader).iterator();
+	}
+	/**
+	 * @return The first document, or null if the stream has no documents, matching {@link fun.bb1.config.v2.adapter.AbstractAdapter#readFrom(Reader)}
+	 */
+	@Nullable Primitive read() {
+		while (this.events.hasNext()) {
+			final Event event = this.next();
+			if (event instanceof NodeEvent) return this.read(event);
+		}
+		return null;
+	}
+	/**
+	 * Writes the first document to the sink as it is parsed, an empty map if the stream has no documents
+	 * 
+	 * @apiNote Anchored values are read in full, so they can be repeated wherever they are aliased, and lose the comments within them
+	 */
+	void readTo(@NotNull final IConfigurationSink sink) throws IOException {
+		while (this.events.hasNext()) {
+			final Event event = this.next();
+			if (event instanceof NodeEvent) {
+				this.readTo(event, sink);
+				return;
+			}
+		}
+		sink.beginObject();
+		sink.endObject();
+	}
+	
+	private void readTo(@NotNull final Event event, @NotNull final IConfigurationSink sink) throws IOException {
+		if (this.comment != null && !(event instanceof MappingStartEvent || event instanceof SequenceStartEvent)) { // comments read just before a block are above its first entry
+			sink.comment(this.comment);
+			this.comment = null;
+		}
+		if (event instanceof AliasEvent || ((NodeEvent) event).getAnchor() != null) {
+			final Primitive primitive = this.read(event);
+			this.comment = null;
+			if (primitive == null) {
+				sink.nullValue();
+			} else {
+				sink.value(primitive);
+			}
+		} else if (event instanceof MappingStartEvent) {
+			sink.beginObject();
+			for (Event key = this.next(); !(key instanceof MappingEndEvent); key = this.next()) {
+				final String comment = this.comment;
+				this.comment = null;
+				final Primitive keyPrimitive = this.read(key);
+				if (keyPrimitive == null || !(key instanceof ScalarEvent || key instanceof AliasEvent) || keyPrimitive.isArray()) { // only scalar keys can be represented
+					this.read(this.next());
+					this.comment = null;
+					continue;
+				}
+				sink.key(keyPrimitive.getAsString());
+				if (comment != null) sink.comment(comment);
+				this.readTo(this.next(), sink);
+			}
+			sink.endObject();
+		} else if (event instanceof SequenceStartEvent) {
+			sink.beginArray();
+			for (Event element = this.next(); !(element instanceof SequenceEndEvent); element = this.next()) {
+				this.readTo(element, sink);
+			}
+			sink.endArray();
+		} else if (event instanceof final ScalarEvent scalar) {
+			final Primitive primitive = this.resolve(scalar);
+			if (primitive == null) {
+				sink.nullValue();
+			} else {
+				sink.value(primitive);
+			}
+		} else {
+			throw new IllegalStateException("Unexpected " + event);
+		}
+	}
+	/**
+	 * @return The next event that is not a comment, block comments are held in {@link #comment} until they are used
+	 */
+	private @NotNull Event next() {
+		Event event = this.events.next();
+		while (event instanceof final CommentEvent commentEvent) {
+			if (commentEvent.getCommentType() == CommentType.BLOCK) {
+				final String line = commentEvent.getValue().startsWith(" ") ? commentEvent.getValue().substring(1) : commentEvent.getValue();
+				this.comment = this.comment == null ? line : this.comment + '\n' + line;
+			}
+			event = this.events.next();
+		}
+		return event;
+	}
+	
+	private @Nullable Primitive read(@NotNull final Event event) {
+		if (event instanceof final AliasEvent alias) return this.anchors.get(alias.getAnchor());
+		final Primitive primitive;
+		if (event instanceof MappingStartEvent) {
+			final PrimitiveMap<String> primitiveMap = new PrimitiveMap<String>();
+			for (Event key = this.next(); !(key instanceof MappingEndEvent); key = this.next()) {
+				final Primitive keyPrimitive = this.read(key);
+				final Primitive value = this.read(this.next());
+				if (keyPrimitive == null || !(key instanceof ScalarEvent || key instanceof AliasEvent) || keyPrimitive.isArray()) continue; // only scalar keys can be represented
+				primitiveMap.put(keyPrimitive.getAsString(), value);
+			}
+			primitive = new Primitive(primitiveMap);
+		} else if (event instanceof SequenceStartEvent) {
+			final List<Primitive> primitives = new ArrayList<Primitive>();
+			for (Event element = this.next(); !(element instanceof SequenceEndEvent); element = this.next()) {
+				primitives.add(this.read(element));
+			}
+			primitive = new Primitive(primitives.toArray(Primitive[]::new));
+		} else if (event instanceof final ScalarEvent scalar) {
+			primitive = this.resolve(scalar);
+		} else {
+			throw new IllegalStateException("Unexpected " + event);
+		}
+		final String anchor = ((NodeEvent) event).getAnchor();
+		if (anchor != null) this.anchors.put(anchor, primitive);
+		return primitive;
+	}
+	
+	private @Nullable Primitive resolve(@NotNull final ScalarEvent scalar) {
+		final String value = scalar.getValue();
+		final Tag tag;
+		if (scalar.getTag() != null && !scalar.getTag().equals("!")) {
+			tag = new Tag(scalar.getTag());
+		} else {
+			tag = scalar.isPlain() ? this.resolver.resolve(NodeId.scalar, value, true) : Tag.STR;
+		}
+		if (Tag.NULL.equals(tag)) return null;
+		if (Tag.BOOL.equals(tag)) {
+			final String bool = value.toLowerCase(Locale.ROOT);
+			return new Primitive(bool.equals("true") || bool.equals("yes") || bool.equals("on") || bool.equals("y"));
+		}
+		if (Tag.INT.equals(tag)) {
+			final Number number = parseInteger(value);
+			if (number != null) return new Primitive(number);
+		}
+		if (Tag.FLOAT.equals(tag)) {
+			final Number number = parseFloat(value);
+			if (number != null) return new Primitive(number);
+		}
+		return new Primitive(value);
+	}
+	
+	private static @Nullable Number parseInteger(@NotNull final String value) {
+		String str = value.replace("_", "");
+		boolean negative = false;
+		if (str.startsWith("-") || str.startsWith("+")) {
+			negative = str.charAt(0) == '-';
+			str = str.substring(1);
+		}
+		int radix = 10;
+		if (str.startsWith("0x")) {
+			radix = 16;
+			str = str.substring(2);
+		} else if (str.startsWith("0b")) {
+			radix = 2;
+			str = str.substring(2);
+		} else if (str.startsWith("0o")) {
+			radix = 8;
+			str = str.substring(2);
+		} else if (str.length() > 1 && str.startsWith("0")) {
+			radix = 8;
+			str = str.substring(1);
+		}
+		if (str.isEmpty() || str.indexOf(':') != -1) return null; // sexagesimal is left as a string
+		try {
+			final BigInteger integer = new BigInteger(negative ? "-" + str : str, radix);
+			return integer.bitLength() < 64 ? (Number) integer.longValue() : integer;
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+	
+	private static @Nullable Number parseFloat(@NotNull final String value) {
+		final String str = value.replace("_", "").toLowerCase(Locale.ROOT);
+		if (str.endsWith(".nan")) return Double.NaN;
+		if (str.endsWith(".inf")) return str.startsWith("-") ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+		try {
+			return Double.parseDouble(str);
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+	
+}
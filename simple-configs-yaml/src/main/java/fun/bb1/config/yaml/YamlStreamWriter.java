@@ -0,0 +1,303 @@
+package fun.bb1.config.yaml;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import fun.bb1.config.v2.adapter.IConfigurationSink;
+import fun.bb1.yaml.IYamlElement;
+import fun.bb1.yaml.YamlArray;
+import fun.bb1.yaml.YamlObject;
+import fun.bb1.yaml.YamlPrimitive;
+/**
+ * Writes block style YAML straight to a {@link Writer} as values are received, either from an {@link IYamlElement} or directly as an {@link IConfigurationSink}
+ * <br>
+ * Comments are written on the lines above the element they belong to, strings are only quoted when they would otherwise be read back as something else
+ */
+final class YamlStreamWriter implements IConfigurationSink {
+	
+	private static final int INDENT = 2;
+	/**
+	 * Plain scalars that YAML would resolve to a boolean, null or number
+	 */
+	private static final @NotNull Set<String> RESERVED = Set.of("true", "false", "yes", "no", "on", "off", "y", "n", "null", "~");
+	private static final @NotNull Pattern NUMERIC = Pattern.compile("[-+]?(\\.?[0-9].*|\\.(inf|nan))", Pattern.CASE_INSENSITIVE);
+	private static final @NotNull String INDICATORS = "-?:,[]{}#&*!|>'\"%@`";
+	
+	private final @NotNull Writer writer;
+	private final @NotNull Deque<Frame> frames = new ArrayDeque<Frame>();
+	private @Nullable String key;
+	private @Nullable String comment;
+	
+	YamlStreamWriter(@NotNull final Writer writer) {
+		this.writer = writer;
+	}
+	/**
+	 * @param element The root element to write
+	 * 
+	 * @throws IOException If the writer fails
+	 */
+	void write(@NotNull final IYamlElement element) throws IOException {
+		this.writeElement(element);
+	}
+	
+	private void writeElement(@Nullable final IYamlElement element) throws IOException {
+		if (element == null) {
+			this.nullValue();
+			return;
+		}
+		if (element.getComment() != null) this.comment(element.getComment());
+		if (element instanceof final YamlObject object) {
+			this.beginObject();
+			for (final YamlPrimitive key : object) {
+				this.key(key.getAsString());
+				this.writeElement(object.get(key));
+			}
+			this.endObject();
+		} else if (element instanceof final YamlArray array) {
+			this.beginArray();
+			for (int i = 0; i < array.getSize(); i++) {
+				this.writeElement(array.get(i));
+			}
+			this.endArray();
+		} else if (element instanceof final YamlPrimitive primitive) {
+			if (primitive.isBoolean()) {
+				this.value(primitive.getAsBoolean().booleanValue());
+			} else if (primitive.isNumber()) {
+				this.value(primitive.getAsNumber());
+			} else {
+				this.value(primitive.getAsString());
+			}
+		} else {
+			this.value(element.toString());
+		}
+	}
+	
+	@Override
+	public void beginObject() throws IOException {
+		final Frame parent = this.beginValue();
+		this.frames.push(new Frame(true, parent == null ? 0 : parent.indent + INDENT, parent != null));
+	}
+	
+	@Override
+	public void endObject() throws IOException {
+		this.endCollection("{}");
+	}
+	
+	@Override
+	public void beginArray() throws IOException {
+		final Frame parent = this.beginValue();
+		this.frames.push(new Frame(false, parent == null ? 0 : parent.mapping ? parent.indent : parent.indent + INDENT, parent != null)); // sequences within mappings are not indented further
+	}
+	
+	@Override
+	public void endArray() throws IOException {
+		this.endCollection("[]");
+	}
+	
+	@Override
+	public void key(@NotNull final String key) {
+		this.key = key;
+	}
+	
+	@Override
+	public void comment(@NotNull final String comment) {
+		this.comment = comment;
+	}
+	
+	@Override
+	public void value(@NotNull final String value) throws IOException {
+		this.beginScalar();
+		this.writeScalar(value);
+		this.writer.write('\n');
+	}
+	
+	@Override
+	public void value(@NotNull final Number value) throws IOException {
+		this.beginScalar();
+		this.writeNumber(value);
+		this.writer.write('\n');
+	}
+	
+	@Override
+	public void value(final long value) throws IOException {
+		this.beginScalar();
+		this.writer.write(Long.toString(value));
+		this.writer.write('\n');
+	}
+	
+	@Override
+	public void value(final double value) throws IOException {
+		this.beginScalar();
+		this.writeDouble(value);
+		this.writer.write('\n');
+	}
+	
+	@Override
+	public void value(final boolean value) throws IOException {
+		this.beginScalar();
+		this.writer.write(value ? "true" : "false");
+		this.writer.write('\n');
+	}
+	
+	@Override
+	public void nullValue() throws IOException {
+		this.beginScalar();
+		this.writer.write("null");
+		this.writer.write('\n');
+	}
+	
+	@Override
+	public void flush() throws IOException {
+		this.writer.flush();
+	}
+	
+	private void beginScalar() throws IOException {
+		if (this.beginValue() != null) this.writer.write(' ');
+	}
+	/**
+	 * Writes the comment and the key or dash of the next value
+	 * 
+	 * @return The collection the value is within, or null if it is the root
+	 */
+	private @Nullable Frame beginValue() throws IOException {
+		final Frame parent = this.frames.peek();
+		final String key = this.key;
+		final String comment = this.comment;
+		this.key = null;
+		this.comment = null;
+		if (parent == null) {
+			this.writeComment(comment, 0);
+			return null;
+		}
+		if (parent.mapping && key == null) throw new IllegalStateException("A value within an object must have a key");
+		if (parent.empty) {
+			if (parent.nested) this.writer.write('\n'); // end the line of the key or dash that opened it
+			parent.empty = false;
+		}
+		this.writeComment(comment, parent.indent);
+		this.writeIndent(parent.indent);
+		if (parent.mapping) {
+			this.writeScalar(key);
+			this.writer.write(':');
+		} else {
+			this.writer.write('-');
+		}
+		return parent;
+	}
+	
+	private void endCollection(@NotNull final String empty) throws IOException {
+		this.key = null;
+		this.comment = null;
+		final Frame frame = this.frames.pop();
+		if (!frame.empty) return;
+		if (frame.nested) this.writer.write(' ');
+		this.writer.write(empty);
+		this.writer.write('\n');
+	}
+	
+	private void writeNumber(@NotNull final Number number) throws IOException {
+		if (number instanceof Double || number instanceof Float) {
+			final double value = number.doubleValue();
+			if (Double.isNaN(value) || Double.isInfinite(value)) {
+				this.writeDouble(value);
+				return;
+			}
+		}
+		this.writer.write(number.toString());
+	}
+	
+	private void writeDouble(final double value) throws IOException {
+		if (Double.isNaN(value)) {
+			this.writer.write(".nan");
+		} else if (Double.isInfinite(value)) {
+			this.writer.write(value > 0 ? ".inf" : "-.inf");
+		} else {
+			this.writer.write(Double.toString(value));
+		}
+	}
+	
+	private void writeScalar(@NotNull final String str) throws IOException {
+		if (!this.needsQuoting(str)) {
+			this.writer.write(str);
+			return;
+		}
+		this.writer.write('"');
+		for (int i = 0; i < str.length(); i++) {
+			final char c = str.charAt(i);
+			switch (c) {
+				case '"' -> this.writer.write("\\\"");
+				case '\\' -> this.writer.write("\\\\");
+				case '\n' -> this.writer.write("\\n");
+				case '\r' -> this.writer.write("\\r");
+				case '\t' -> this.writer.write("\\t");
+				default -> {
+					if (c < 0x20 || c == 0x7F) {
+						this.writer.write(String.format("\\u%04x", (int) c));
+					} else {
+						this.writer.write(c);
+					}
+				}
+			}
+		}
+		this.writer.write('"');
+	}
+	
+	private boolean needsQuoting(@NotNull final String str) {
+		if (str.isEmpty() || RESERVED.contains(str.toLowerCase(Locale.ROOT)) || NUMERIC.matcher(str).matches()) return true;
+		if (INDICATORS.indexOf(str.charAt(0)) != -1 || Character.isWhitespace(str.charAt(0)) || Character.isWhitespace(str.charAt(str.length() - 1))) return true;
+		if (str.contains(": ") || str.contains(" #") || str.endsWith(":")) return true;
+		for (int i = 0; i < str.length(); i++) {
+			final char c = str.charAt(i);
+			if (c < 0x20 || c == 0x7F) return true;
+		}
+		return false;
+	}
+	
+	private void writeComment(@Nullable final String comment, final int indent) throws IOException {
+		if (comment == null || comment.isBlank()) return;
+		final Iterator<String> lines = comment.lines().iterator();
+		while (lines.hasNext()) {
+			this.writeIndent(indent);
+			this.writer.write("# ");
+			this.writer.write(lines.next());
+			this.writer.write('\n');
+		}
+	}
+	
+	private void writeIndent(final int indent) throws IOException {
+		for (int i = 0; i < indent; i++) {
+			this.writer.write(' ');
+		}
+	}
+	
+	/**
+	 * An object or array currently being written
+	 */
+	private static final class Frame {
+		
+		private final boolean mapping;
+		private final int indent;
+		/**
+		 * If this was opened after a key or dash, rather than being the root
+		 */
+		private final boolean nested;
+		private boolean empty = true;
+		
+		private Frame(final boolean mapping, final int indent, final boolean nested) {
+			this.mapping = mapping;
+			this.indent = indent;
+			this.nested = nested;
+		}
+		
+	}
+	
+}
@@ -1,21 +1,368 @@
 package fun.bb1.config;
 
+import static fun.bb1.exceptions.handler.ExceptionHandler.handle;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import fun.bb1.config.entries.ConfigValue;
 import fun.bb1.objects.Primitive;
+import fun.bb1.objects.PrimitiveMap;
 import fun.bb1.objects.annotations.AllowsEmptyString;
 import fun.bb1.objects.annotations.DisallowsEmptyString;
-
+/**
+ * A config that is safe to read from any number of threads whilst it is being updated
+ * <br>
+ * Values are held in an immutable {@link ConfigSnapshot}, reads never lock and every update publishes a whole new snapshot with a greater version
+ * <br>
+ * Several changes can be published at once with a {@link #batch()}, so readers never see only some of them
+ * <br>
+ * {@link IConfigListener}s are told what changed in each publish, on an executor so that they never hold up whoever published
+ * 
+ * @apiNote Publishing copies every value, so a config is intended to be read far more often than it is written to
+ */
 public final class Config {
 	
-	private @Nullable String[] topLevelComments;
-	private final @NotNull Map<String, Primitive> root = new ConcurrentHashMap<String, Primitive>();
+	private static final @NotNull Logger LOGGER = Logger.getLogger(Config.class.getName());
 	
+	private final @NotNull AtomicReference<ConfigSnapshot> snapshot = new AtomicReference<ConfigSnapshot>(ConfigSnapshot.EMPTY);
+	private final @NotNull List<Subscription> subscriptions = new CopyOnWriteArrayList<Subscription>();
+	private final @NotNull Object notifyLock = new Object();
+	private volatile @NotNull Executor listenerExecutor = ForkJoinPool.commonPool();
+	/**
+	 * The last snapshot listeners were notified of, guarded by {@link #notifyLock}
+	 */
+	private @NotNull ConfigSnapshot notified = ConfigSnapshot.EMPTY;
+	/**
+	 * Adds a value, replacing any value already under the key, and publishes it straight away
+	 * 
+	 * @param comment The comment of the value, null or empty for none
+	 * @param key The key of the value
+	 * @param value The value
+	 */
 	public final void addValue(@Nullable @AllowsEmptyString final String comment, @NotNull @DisallowsEmptyString final String key, @NotNull final Primitive value) {
+		this.batch().addValue(comment, key, value).publish();
+	}
+	/**
+	 * Removes the value under the key and publishes the change straight away
+	 * 
+	 * @param key The key of the value
+	 */
+	public final void removeValue(@NotNull final String key) {
+		this.batch().removeValue(key).publish();
+	}
+	/**
+	 * Replaces every value in the config in one publish, such as when it is reloaded
+	 * 
+	 * @param values The new values
+	 * @param topLevelComments The comments at the top of the config, or null for none
+	 * 
+	 * @return The published snapshot
+	 */
+	public final @NotNull ConfigSnapshot replace(@NotNull final PrimitiveMap<String> values, @Nullable final String... topLevelComments) {
+		final Batch batch = this.batch().clear().setTopLevelComments(topLevelComments);
+		for (final Map.Entry<String, Primitive> entry : values.entrySet()) {
+			batch.addValue(null, entry.getKey(), entry.getValue());
+		}
+		return batch.publish();
+	}
+	/**
+	 * @return A batch of changes to publish to this config at once
+	 */
+	public final @NotNull Batch batch() {
+		return new Batch(this);
+	}
+	/**
+	 * @return The current snapshot, read several values from the same snapshot to get a consistent view of them
+	 */
+	public final @NotNull ConfigSnapshot getSnapshot() {
+		return this.snapshot.get();
+	}
+	/**
+	 * @return The version of the current snapshot
+	 */
+	public final long getVersion() {
+		return this.snapshot.get().getVersion();
+	}
+	/**
+	 * @param key The key of the value
+	 * 
+	 * @return The value under the key in the current snapshot, or null if there is none
+	 */
+	public final @Nullable Primitive getValue(@NotNull final String key) {
+		return this.snapshot.get().getValue(key);
+	}
+	/**
+	 * @param path The path to the value
+	 * 
+	 * @return The value at the path in the current snapshot, or null if there is none
+	 */
+	public final @Nullable Primitive get(@NotNull final ConfigPath path) {
+		return this.snapshot.get().get(path);
+	}
+	/**
+	 * @see ConfigSnapshot#getInt(ConfigPath, int)
+	 */
+	public final int getInt(@NotNull final ConfigPath path, final int fallback) {
+		return this.snapshot.get().getInt(path, fallback);
+	}
+	/**
+	 * @see ConfigSnapshot#getLong(ConfigPath, long)
+	 */
+	public final long getLong(@NotNull final ConfigPath path, final long fallback) {
+		return this.snapshot.get().getLong(path, fallback);
+	}
+	/**
+	 * @see ConfigSnapshot#getDouble(ConfigPath, double)
+	 */
+	public final double getDouble(@NotNull final ConfigPath path, final double fallback) {
+		return this.snapshot.get().getDouble(path, fallback);
+	}
+	/**
+	 * @see ConfigSnapshot#getBoolean(ConfigPath, boolean)
+	 */
+	public final boolean getBoolean(@NotNull final ConfigPath path, final boolean fallback) {
+		return this.snapshot.get().getBoolean(path, fallback);
+	}
+	/**
+	 * @see ConfigSnapshot#get(ConfigPath, Class)
+	 */
+	public final <V> @Nullable V get(@NotNull final ConfigPath path, @NotNull final Class<V> type) {
+		return this.snapshot.get().get(path, type);
+	}
+	/**
+	 * @see ConfigSnapshot#get(ConfigPath, Type)
+	 */
+	public final <V> @Nullable V get(@NotNull final ConfigPath path, @NotNull final Type type) {
+		return this.snapshot.get().get(path, type);
+	}
+	/**
+	 * @param key The key of the value
+	 * 
+	 * @return The comment of the value under the key in the current snapshot, or null if there is none
+	 */
+	public final @Nullable String getComment(@NotNull final String key) {
+		return this.snapshot.get().getComment(key);
+	}
+	/**
+	 * @param prefix The path to listen to changes within, or null to listen to every change
+	 * @param listener The listener to notify
+	 * 
+	 * @apiNote Each listener is notified on the {@link #setListenerExecutor(Executor) listener executor}, one publish at a time and in the order they were published
+	 */
+	public final void addListener(@Nullable final ConfigPath prefix, @NotNull final IConfigListener listener) {
+		this.subscriptions.add(new Subscription(prefix, listener));
+	}
+	/**
+	 * @param listener The listener to stop notifying, for every path it was added for
+	 */
+	public final void removeListener(@NotNull final IConfigListener listener) {
+		this.subscriptions.removeIf((subscription)->subscription.listener == listener);
+	}
+	/**
+	 * @param listenerExecutor The executor to notify listeners on, by default the common {@link ForkJoinPool}
+	 */
+	public final void setListenerExecutor(@NotNull final Executor listenerExecutor) {
+		this.listenerExecutor = listenerExecutor;
+	}
+	/**
+	 * Diffs the latest snapshot against the last one listeners were notified of, so that publishes that raced are still delivered in order
+	 */
+	private void notifyListeners() {
+		synchronized (this.notifyLock) {
+			final ConfigSnapshot current = this.snapshot.get();
+			final ConfigSnapshot previous = this.notified;
+			if (current.getVersion() <= previous.getVersion()) return; // already delivered by a later publish
+			this.notified = current;
+			if (this.subscriptions.isEmpty()) return;
+			final List<ConfigChange> changes = ConfigDiff.diff(previous, current);
+			if (changes.isEmpty()) return;
+			final Executor executor = this.listenerExecutor;
+			for (final Subscription subscription : this.subscriptions) {
+				subscription.notify(executor, current, changes);
+			}
+		}
+	}
+	/**
+	 * Applies the changes to the latest snapshot and publishes the result, retrying if another thread published first
+	 */
+	private @NotNull ConfigSnapshot publish(@NotNull final List<Consumer<Draft>> changes) {
+		while (true) {
+			final ConfigSnapshot current = this.snapshot.get();
+			final Draft draft = new Draft(new LinkedHashMap<String, ConfigValue>(current.getValues()), current.getTopLevelComments());
+			for (final Consumer<Draft> change : changes) {
+				change.accept(draft);
+			}
+			final ConfigSnapshot next = new ConfigSnapshot(current.getVersion() + 1, draft.values, draft.topLevelComments);
+			if (this.snapshot.compareAndSet(current, next)) {
+				this.notifyListeners();
+				return next;
+			}
+		}
+	}
+	/**
+	 * Changes to a {@link Config} that are published together
+	 * <br>
+	 * Changes are recorded in order and only applied when {@link #publish()} is called, on top of whatever snapshot is current at that point
+	 * 
+	 * @apiNote Not safe to share between threads, a batch can be published more than once
+	 */
+	public static final class Batch {
+		
+		private final @NotNull Config config;
+		private final @NotNull List<Consumer<Draft>> changes = new ArrayList<Consumer<Draft>>();
+		
+		private Batch(@NotNull final Config config) {
+			this.config = config;
+		}
+		/**
+		 * @param comment The comment of the value, null or empty for none
+		 * @param key The key of the value
+		 * @param value The value
+		 * 
+		 * @return This batch
+		 */
+		public @NotNull Batch addValue(@Nullable @AllowsEmptyString final String comment, @NotNull @DisallowsEmptyString final String key, @NotNull final Primitive value) {
+			if (key.isEmpty()) throw new IllegalArgumentException("A key cannot be empty");
+			final ConfigValue configValue = new ConfigValue(comment != null ? comment : "", ConfigSnapshot.copy(value)); // copied now so later changes to the value are never published
+			this.changes.add((draft)->draft.values.put(key, configValue));
+			return this;
+		}
+		/**
+		 * @param key The key of the value
+		 * @param value The value
+		 * 
+		 * @return This batch
+		 */
+		public @NotNull Batch addValue(@NotNull @DisallowsEmptyString final String key, @NotNull final Primitive value) {
+			return this.addValue(null, key, value);
+		}
+		/**
+		 * @param key The key of the value to remove
+		 * 
+		 * @return This batch
+		 */
+		public @NotNull Batch removeValue(@NotNull final String key) {
+			this.changes.add((draft)->draft.values.remove(key));
+			return this;
+		}
+		/**
+		 * Removes every value, including those published after this batch was made
+		 * 
+		 * @return This batch
+		 */
+		public @NotNull Batch clear() {
+			this.changes.add((draft)->draft.values.clear());
+			return this;
+		}
+		/**
+		 * @param topLevelComments The comments at the top of the config, or null for none
+		 * 
+		 * @return This batch
+		 */
+		public @NotNull Batch setTopLevelComments(@Nullable final String... topLevelComments) {
+			final String[] comments = topLevelComments != null && topLevelComments.length != 0 ? topLevelComments.clone() : null;
+			this.changes.add((draft)->draft.topLevelComments = comments);
+			return this;
+		}
+		/**
+		 * Publishes every change in this batch as one snapshot
+		 * 
+		 * @return The published snapshot
+		 */
+		public @NotNull ConfigSnapshot publish() {
+			return this.config.publish(this.changes);
+		}
+		
+	}
+	
+	/**
+	 * A listener and the notifications waiting to be delivered to it, which are delivered one at a time
+	 */
+	private static final class Subscription {
+		
+		private final @Nullable ConfigPath prefix;
+		private final @NotNull IConfigListener listener;
+		private final @NotNull Queue<Runnable> pending = new ConcurrentLinkedQueue<Runnable>();
+		private final @NotNull AtomicBoolean scheduled = new AtomicBoolean(false);
+		
+		private Subscription(@Nullable final ConfigPath prefix, @NotNull final IConfigListener listener) {
+			this.prefix = prefix;
+			this.listener = listener;
+		}
+		
+		private void notify(@NotNull final Executor executor, @NotNull final ConfigSnapshot snapshot, @NotNull final List<ConfigChange> changes) {
+			final List<ConfigChange> affecting = this.filter(changes);
+			if (affecting.isEmpty()) return;
+			this.pending.add(()->this.listener.onChange(snapshot, affecting));
+			this.schedule(executor);
+		}
+		
+		private @NotNull List<ConfigChange> filter(@NotNull final List<ConfigChange> changes) {
+			if (this.prefix == null) return changes;
+			final List<ConfigChange> affecting = new ArrayList<ConfigChange>();
+			for (final ConfigChange change : changes) {
+				if (change.affects(this.prefix)) affecting.add(change);
+			}
+			return Collections.unmodifiableList(affecting);
+		}
+		
+		/**
+		 * Starts draining the pending notifications on the executor, if they are not already being drained
+		 * <br>
+		 * If the executor rejects the task it is logged rather than thrown, so the other subscriptions are still notified, and the notifications stay pending until the next publish
+		 */
+		private void schedule(@NotNull final Executor executor) {
+			if (!this.scheduled.compareAndSet(false, true)) return; // already being drained
+			try {
+				executor.execute(()->this.drain(executor));
+			} catch (final RuntimeException e) {
+				this.scheduled.set(false);
+				LOGGER.log(Level.WARNING, "Could not notify " + this.listener + " of a change, it will be notified of it alongside the next one", e);
+			}
+		}
+		
+		private void drain(@NotNull final Executor executor) {
+			Runnable notification;
+			while ((notification = this.pending.poll()) != null) {
+				final Runnable toRun = notification;
+				handle(()->{
+					toRun.run();
+					return null;
+				});
+			}
+			this.scheduled.set(false);
+			if (!this.pending.isEmpty()) this.schedule(executor); // added whilst the flag was still set
+		}
+		
+	}
+	
+	private static final class Draft {
+		
+		private final @NotNull Map<String, ConfigValue> values;
+		private @Nullable String[] topLevelComments;
+		
+		private Draft(@NotNull final Map<String, ConfigValue> values, @Nullable final String[] topLevelComments) {
+			this.values = values;
+			this.topLevelComments = topLevelComments;
+		}
 		
 	}
 	
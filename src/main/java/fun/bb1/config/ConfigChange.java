@@ -0,0 +1,57 @@
+package fun.bb1.config;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import fun.bb1.objects.Primitive;
+
+/**
+ *
+ * Copyright 2022 BradBot_1
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ * http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ * A value of a {@link Config} that was added, removed or changed by a publish
+ * <br>
+ * Changes within maps are reported at the deepest key that changed, a value that was added or removed as a whole is reported once at its own path
+ *
+ * @param path The path to the value
+ * @param previousValue The value before the publish, or null if it was added
+ * @param currentValue The value after the publish, or null if it was removed
+ *
+ * @author BradBot_1
+ */
+public record ConfigChange(@NotNull ConfigPath path, @Nullable Primitive previousValue, @Nullable Primitive currentValue) {
+	/**
+	 * @return If there was no value at the path before
+	 */
+	public boolean isAdded() {
+		return this.previousValue == null;
+	}
+	/**
+	 * @return If there is no value at the path anymore
+	 */
+	public boolean isRemoved() {
+		return this.currentValue == null;
+	}
+	/**
+	 * @param prefix The path to check
+	 * 
+	 * @return If this change affects the value at the path, either because it is at or within the path or because it replaced a map containing the path
+	 */
+	public boolean affects(@NotNull final ConfigPath prefix) {
+		return this.path.startsWith(prefix) || prefix.startsWith(this.path);
+	}
+	
+}
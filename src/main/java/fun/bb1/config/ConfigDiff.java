@@ -0,0 +1,139 @@
+package fun.bb1.config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import fun.bb1.config.entries.ConfigValue;
+import fun.bb1.objects.Primitive;
+/**
+ * Finds the {@link ConfigChange}s between two {@link ConfigSnapshot}s
+ * <br>
+ * Subtrees that are the same instance are skipped outright, maps whose hashes differ are walked without comparing them first, and changes are reported at the deepest map key that differs
+ */
+final class ConfigDiff {
+	
+	private ConfigDiff() { }
+	/**
+	 * @return The changes from the previous snapshot to the current one, in the order of the current snapshot
+	 */
+	static @NotNull List<ConfigChange> diff(@NotNull final ConfigSnapshot previous, @NotNull final ConfigSnapshot current) {
+		final List<ConfigChange> changes = new ArrayList<ConfigChange>();
+		final Map<String, ConfigValue> previousValues = previous.getValues();
+		final Map<String, ConfigValue> currentValues = current.getValues();
+		for (final Map.Entry<String, ConfigValue> entry : currentValues.entrySet()) {
+			final ConfigValue previousValue = previousValues.get(entry.getKey());
+			if (previousValue == entry.getValue()) continue; // carried over by a batch
+			compare(previous, current, ConfigPath.of(new String[] { entry.getKey() }), previousValue != null ? previousValue.value() : null, entry.getValue().value(), changes);
+		}
+		for (final Map.Entry<String, ConfigValue> entry : previousValues.entrySet()) {
+			if (currentValues.containsKey(entry.getKey())) continue;
+			changes.add(new ConfigChange(ConfigPath.of(new String[] { entry.getKey() }), entry.getValue().value(), null));
+		}
+		return Collections.unmodifiableList(changes);
+	}
+	
+	private static void compare(@NotNull final ConfigSnapshot previous, @NotNull final ConfigSnapshot current, @NotNull final ConfigPath path, @Nullable final Primitive previousValue, @Nullable final Primitive currentValue, @NotNull final List<ConfigChange> changes) {
+		if (previousValue == currentValue) return;
+		if (previousValue == null || currentValue == null) {
+			changes.add(new ConfigChange(path, previousValue, currentValue));
+			return;
+		}
+		final boolean sameHash = previous.getHash(path) == current.getHash(path);
+		if (sameHash && equal(previousValue, currentValue)) return;
+		if (!isMap(previousValue) || !isMap(currentValue)) {
+			changes.add(new ConfigChange(path, previousValue, currentValue));
+			return;
+		}
+		final Map<String, Primitive> previousMap = previousValue.getAsStringBasedMap();
+		final Map<String, Primitive> currentMap = currentValue.getAsStringBasedMap();
+		for (final Map.Entry<String, Primitive> entry : currentMap.entrySet()) {
+			if (!isAddressable(entry.getKey(), entry.getValue())) continue;
+			compare(previous, current, path.child(entry.getKey()), previousMap.get(entry.getKey()), entry.getValue(), changes);
+		}
+		for (final Map.Entry<String, Primitive> entry : previousMap.entrySet()) {
+			if (!isAddressable(entry.getKey(), entry.getValue()) || currentMap.get(entry.getKey()) != null) continue;
+			changes.add(new ConfigChange(path.child(entry.getKey()), entry.getValue(), null));
+		}
+	}
+	
+	static boolean isMap(@NotNull final Primitive primitive) {
+		return !(primitive.isArray() || primitive.isString() || primitive.isNumber() || primitive.isBoolean() || primitive.isCharacter());
+	}
+	/**
+	 * @return If the entry of a map can be reached by a {@link ConfigPath}
+	 */
+	static boolean isAddressable(@NotNull final String key, @Nullable final Primitive value) {
+		return !key.isEmpty() && value != null;
+	}
+	/**
+	 * @return A hash of the value that is equal for any two values that are {@link #equal(Primitive, Primitive)}
+	 */
+	static int hash(@Nullable final Primitive primitive) {
+		if (primitive == null) return 0;
+		if (primitive.isString()) return primitive.getAsString().hashCode();
+		if (primitive.isNumber()) {
+			final double number = primitive.getAsNumber().doubleValue();
+			return number != 0 ? Double.hashCode(number) : 0; // -0.0 is equal to 0
+		}
+		if (primitive.isBoolean()) return Boolean.hashCode(primitive.getAsBoolean());
+		if (primitive.isCharacter()) return Character.hashCode(primitive.getAsCharacter()) * 31;
+		if (primitive.isArray()) {
+			int hash = 1;
+			for (final Primitive element : primitive.getAsArray()) {
+				hash = 31 * hash + hash(element);
+			}
+			return hash;
+		}
+		int hash = 0;
+		for (final Map.Entry<String, Primitive> entry : primitive.getAsStringBasedMap().entrySet()) {
+			if (!isAddressable(entry.getKey(), entry.getValue())) continue;
+			hash += entry.getKey().hashCode() ^ hash(entry.getValue());
+		}
+		return hash;
+	}
+	/**
+	 * @return If the two values are structurally the same, numbers being compared by value rather than type
+	 */
+	static boolean equal(@Nullable final Primitive a, @Nullable final Primitive b) {
+		if (a == b) return true;
+		if (a == null || b == null) return false;
+		if (a.isString()) return b.isString() && a.getAsString().equals(b.getAsString());
+		if (a.isNumber()) {
+			if (!b.isNumber()) return false;
+			final Number x = a.getAsNumber();
+			final Number y = b.getAsNumber();
+			return x.equals(y) || (x.doubleValue() == y.doubleValue() && x.longValue() == y.longValue());
+		}
+		if (a.isBoolean()) return b.isBoolean() && a.getAsBoolean().equals(b.getAsBoolean());
+		if (a.isCharacter()) return b.isCharacter() && a.getAsCharacter().equals(b.getAsCharacter());
+		if (a.isArray()) {
+			if (!b.isArray()) return false;
+			final Primitive[] x = a.getAsArray();
+			final Primitive[] y = b.getAsArray();
+			if (x.length != y.length) return false;
+			for (int i = 0; i < x.length; i++) {
+				if (!equal(x[i], y[i])) return false;
+			}
+			return true;
+		}
+		if (!isMap(b)) return false;
+		final Map<String, Primitive> x = a.getAsStringBasedMap();
+		final Map<String, Primitive> y = b.getAsStringBasedMap();
+		int count = 0;
+		for (final Map.Entry<String, Primitive> entry : x.entrySet()) {
+			if (!isAddressable(entry.getKey(), entry.getValue())) continue;
+			if (!equal(entry.getValue(), y.get(entry.getKey()))) return false;
+			count++;
+		}
+		for (final Map.Entry<String, Primitive> entry : y.entrySet()) {
+			if (isAddressable(entry.getKey(), entry.getValue())) count--;
+		}
+		return count == 0;
+	}
+	
+}
@@ -0,0 +1,216 @@
+package fun.bb1.config;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import fun.bb1.config.v2.adapter.AbstractAdapter;
+import fun.bb1.config.v2.adapter.AdapterController;
+import fun.bb1.objects.Primitive;
+import fun.bb1.objects.PrimitiveMap;
+
+/**
+ *
+ * Copyright 2022 BradBot_1
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ * http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ * A source of values for a {@link LayeredConfig}, such as bundled defaults, a file or the environment
+ * <br>
+ * A layer is loaded again every time it is {@link LayeredConfig#reload(String) reloaded}, the values it loads are never modified
+ *
+ * @author BradBot_1
+ */
+public final class ConfigLayer {
+	
+	private static final @NotNull Pattern NUMBER = Pattern.compile("-?\\d+(\\.\\d+)?([eE][-+]?\\d+)?");
+	/**
+	 * @param name The name of the layer
+	 * @param values The values of the layer, these must not be modified afterwards
+	 * 
+	 * @return A layer that always has the provided values, such as bundled defaults
+	 */
+	public static @NotNull ConfigLayer of(@NotNull final String name, @NotNull final PrimitiveMap<String> values) {
+		return new ConfigLayer(name, ()->values, false, false);
+	}
+	/**
+	 * @param name The name of the layer
+	 * @param source Loads the values of the layer, returning null if there are none
+	 * 
+	 * @return A layer with the values of the source
+	 */
+	public static @NotNull ConfigLayer of(@NotNull final String name, @NotNull final Supplier<@Nullable PrimitiveMap<String>> source) {
+		return new ConfigLayer(name, source, false, false);
+	}
+	/**
+	 * @param name The name of the layer
+	 * @param adapter The adapter to read the file with
+	 * @param path The path to the file
+	 * 
+	 * @apiNote A file that is missing or cannot be read has no values, so optional overrides such as per host files can always be layered
+	 * 
+	 * @return A layer with the values of the file
+	 */
+	public static @NotNull ConfigLayer file(@NotNull final String name, @NotNull final AbstractAdapter<?> adapter, @NotNull final Path path) {
+		return new ConfigLayer(name, ()->{
+			final Primitive primitive = adapter.readFromFile(path);
+			return primitive != null && ConfigDiff.isMap(primitive) ? primitive.getAsStringBasedMap() : null;
+		}, false, false);
+	}
+	/**
+	 * @param name The name of the layer
+	 * @param type The serialization type of the adapter to read the file with, such as {@code JsonElement.class}
+	 * @param path The path to the file
+	 * 
+	 * @return A layer with the values of the file, see {@link #file(String, AbstractAdapter, Path)}
+	 * 
+	 * @throws IllegalArgumentException If there is no adapter for the type
+	 */
+	public static @NotNull ConfigLayer file(@NotNull final String name, @NotNull final Class<?> type, @NotNull final Path path) {
+		final AbstractAdapter<?> adapter = AdapterController.getAdapterFor(type);
+		if (adapter == null) throw new IllegalArgumentException("No adapter is registered for " + type.getName());
+		return file(name, adapter, path);
+	}
+	/**
+	 * Environment variables starting with the prefix are split into a path on underscores and lowercased, so with the prefix {@code APP_} the variable {@code APP_DATABASE_POOL_MAXSIZE} sets {@code database.pool.maxsize}
+	 * <br>
+	 * Each segment is matched against the keys the layers before it already have ignoring case, so if they have {@code database.pool.maxSize} that is what the variable sets
+	 * <br>
+	 * Values are read as text and take the type of the value they override, see {@link #coerce(Primitive, String)}
+	 * 
+	 * @param name The name of the layer
+	 * @param prefix The prefix of the environment variables to include, which is removed from their keys
+	 * 
+	 * @return A layer with the values of the environment variables
+	 */
+	public static @NotNull ConfigLayer environment(@NotNull final String name, @NotNull final String prefix) {
+		return new ConfigLayer(name, ()->nest(System.getenv(), prefix, "_", true), true, true);
+	}
+	/**
+	 * System properties starting with the prefix are split into a path on dots, so with the prefix {@code app.} the property {@code -Dapp.database.pool.maxSize=20} sets {@code database.pool.maxSize}
+	 * <br>
+	 * Values are read as text and take the type of the value they override, see {@link #coerce(Primitive, String)}
+	 * 
+	 * @param name The name of the layer
+	 * @param prefix The prefix of the properties to include, which is removed from their keys
+	 * 
+	 * @return A layer with the values of the system properties
+	 */
+	public static @NotNull ConfigLayer systemProperties(@NotNull final String name, @NotNull final String prefix) {
+		return new ConfigLayer(name, ()->nest(System.getProperties(), prefix, ".", false), false, true);
+	}
+	/**
+	 * Turns flat keys into nested maps, the values are kept as strings until they are merged
+	 */
+	static @NotNull PrimitiveMap<String> nest(@NotNull final Map<?, ?> flat, @NotNull final String prefix, @NotNull final String separator, final boolean lowercase) {
+		final PrimitiveMap<String> root = new PrimitiveMap<String>();
+		for (final Map.Entry<?, ?> entry : flat.entrySet()) {
+			if (!(entry.getKey() instanceof final String key) || !(entry.getValue() instanceof final String value) || !key.startsWith(prefix)) continue;
+			final String[] segments = (lowercase ? key.substring(prefix.length()).toLowerCase(Locale.ROOT) : key.substring(prefix.length())).split(Pattern.quote(separator), -1);
+			PrimitiveMap<String> parent = root;
+			for (int i = 0; i < segments.length && parent != null; i++) {
+				if (segments[i].isEmpty()) {
+					parent = null; // not a valid path
+				} else if (i == segments.length - 1) {
+					parent.put(segments[i], new Primitive(value));
+				} else {
+					final Primitive existing = parent.get(segments[i]);
+					if (existing != null && ConfigDiff.isMap(existing)) {
+						parent = existing.getAsStringBasedMap();
+					} else {
+						final PrimitiveMap<String> child = new PrimitiveMap<String>();
+						parent.put(segments[i], new Primitive(child));
+						parent = child;
+					}
+				}
+			}
+		}
+		return root;
+	}
+	
+	/**
+	 * Converts the text of a {@link #isTextual() textual} layer to the type of the value it overrides, so {@code 20} overriding a number is a number while overriding a string it stays a string
+	 * <br>
+	 * Numbers are kept exactly as written, so {@code 1.10} and values too large for a long are not rounded, unless the value overridden is a floating point number
+	 * 
+	 * @param base The value being overridden, null if there is none
+	 * @param value The text of the override
+	 * 
+	 * @return The override as the type of the base, or as a string if there is no base or the text cannot be converted
+	 */
+	static @NotNull Primitive coerce(@Nullable final Primitive base, @NotNull final String value) {
+		if (base == null || base.isString()) return new Primitive(value);
+		if (base.isBoolean() && (value.equalsIgnoreCase("true") || value.equalsIgnoreCase("false"))) return new Primitive(Boolean.parseBoolean(value));
+		if (base.isCharacter() && value.length() == 1) return new Primitive(value.charAt(0));
+		if (base.isNumber() && NUMBER.matcher(value).matches()) {
+			final Number number = base.getAsNumber();
+			if (number instanceof Double || number instanceof Float) return new Primitive(Double.parseDouble(value));
+			final BigDecimal decimal = new BigDecimal(value);
+			try {
+				return new Primitive(decimal.longValueExact());
+			} catch (final ArithmeticException e) { // has a fraction or is too large for a long
+				return new Primitive(decimal);
+			}
+		}
+		return new Primitive(value);
+	}
+	
+	private final @NotNull String name;
+	private final @NotNull Supplier<@Nullable PrimitiveMap<String>> source;
+	private final boolean relaxed;
+	private final boolean textual;
+	
+	private ConfigLayer(@NotNull final String name, @NotNull final Supplier<@Nullable PrimitiveMap<String>> source, final boolean relaxed, final boolean textual) {
+		this.name = name;
+		this.source = source;
+		this.relaxed = relaxed;
+		this.textual = textual;
+	}
+	/**
+	 * @return The name of this layer, unique within a {@link LayeredConfig}
+	 */
+	public @NotNull String getName() {
+		return this.name;
+	}
+	/**
+	 * @return The current values of this layer, or null if it has none
+	 */
+	public @Nullable PrimitiveMap<String> load() {
+		return this.source.get();
+	}
+	/**
+	 * @return If the keys of this layer are matched against those of the layers before it ignoring case, as the case of its keys has been lost
+	 */
+	boolean isRelaxed() {
+		return this.relaxed;
+	}
+	/**
+	 * @return If the values of this layer are strings that are {@link #coerce(Primitive, String) coerced} to the type of the values they override, as they were read as text
+	 */
+	boolean isTextual() {
+		return this.textual;
+	}
+	
+	@Override
+	public @NotNull String toString() {
+		return "ConfigLayer[" + this.name + "]";
+	}
+	
+}
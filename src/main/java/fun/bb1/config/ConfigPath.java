@@ -0,0 +1,121 @@
+package fun.bb1.config;
+
+import java.util.Arrays;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ *
+ * Copyright 2022 BradBot_1
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ * http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ * The path to a value nested within a {@link Config}, such as {@code database.pool.maxSize}
+ * <br>
+ * A path is parsed and hashed once, so keep paths that are looked up often in constants rather than parsing them on every lookup
+ *
+ * @author BradBot_1
+ */
+public final class ConfigPath {
+	/**
+	 * @param path The keys of the path separated by dots
+	 * 
+	 * @return The parsed path
+	 * 
+	 * @throws IllegalArgumentException If any key is empty
+	 */
+	public static @NotNull ConfigPath of(@NotNull final String path) {
+		return of(path.split("\\.", -1));
+	}
+	/**
+	 * @param segments The keys of the path, which may contain dots
+	 * 
+	 * @return The path
+	 * 
+	 * @throws IllegalArgumentException If there are no keys or any key is empty
+	 */
+	public static @NotNull ConfigPath of(@NotNull final String... segments) {
+		if (segments.length == 0) throw new IllegalArgumentException("A path must have at least one key");
+		for (final String segment : segments) {
+			if (segment.isEmpty()) throw new IllegalArgumentException("A key within a path cannot be empty");
+		}
+		return new ConfigPath(segments.clone());
+	}
+	
+	private final @NotNull String[] segments;
+	private final int hash;
+	
+	private ConfigPath(@NotNull final String[] segments) {
+		this.segments = segments;
+		this.hash = Arrays.hashCode(segments);
+	}
+	/**
+	 * @param key The key to append
+	 * 
+	 * @return The path to the value under the key within the value of this path
+	 */
+	public @NotNull ConfigPath child(@NotNull final String key) {
+		if (key.isEmpty()) throw new IllegalArgumentException("A key within a path cannot be empty");
+		final String[] segments = Arrays.copyOf(this.segments, this.segments.length + 1);
+		segments[this.segments.length] = key;
+		return new ConfigPath(segments);
+	}
+	/**
+	 * @return The path this path is nested within, or null if this is a top level key
+	 */
+	public @Nullable ConfigPath getParent() {
+		return this.segments.length > 1 ? new ConfigPath(Arrays.copyOf(this.segments, this.segments.length - 1)) : null;
+	}
+	/**
+	 * @param prefix The path to check
+	 * 
+	 * @return If this path is the provided path or is nested within it
+	 */
+	public boolean startsWith(@NotNull final ConfigPath prefix) {
+		if (prefix.segments.length > this.segments.length) return false;
+		return Arrays.equals(this.segments, 0, prefix.segments.length, prefix.segments, 0, prefix.segments.length);
+	}
+	/**
+	 * @return The number of keys in this path
+	 */
+	public int getLength() {
+		return this.segments.length;
+	}
+	/**
+	 * @param index The index of the key
+	 * 
+	 * @return The key at the index, 0 being the top level key
+	 */
+	public @NotNull String getSegment(final int index) {
+		return this.segments[index];
+	}
+	
+	@Override
+	public int hashCode() {
+		return this.hash;
+	}
+	
+	@Override
+	public boolean equals(@Nullable final Object obj) {
+		if (this == obj) return true;
+		return obj instanceof final ConfigPath other && this.hash == other.hash && Arrays.equals(this.segments, other.segments);
+	}
+	
+	@Override
+	public @NotNull String toString() {
+		return String.join(".", this.segments);
+	}
+	
+}
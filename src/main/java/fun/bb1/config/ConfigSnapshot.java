@@ -0,0 +1,278 @@
+package fun.bb1.config;
+
+import static fun.bb1.exceptions.handler.ExceptionHandler.handle;
+
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import fun.bb1.config.entries.ConfigValue;
+import fun.bb1.config.v2.serializer.ISerializer;
+import fun.bb1.config.v2.serializer.SerializerController;
+import fun.bb1.objects.Primitive;
+import fun.bb1.objects.PrimitiveMap;
+
+/**
+ *
+ * Copyright 2022 BradBot_1
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ * http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ * The values of a {@link Config} as they were when it was published
+ * <br>
+ * A snapshot never changes, so reading several values from one snapshot always gives a consistent view even whilst the config is being updated
+ * <br>
+ * Every nested value is indexed by its {@link ConfigPath} when the snapshot is published, so {@link #get(ConfigPath)} is a single lookup however deep the value is
+ * <br>
+ * Typed values are deserialized the first time they are requested and kept with the snapshot, so reading them again neither deserializes nor allocates
+ * 
+ * @apiNote Values are copied when they are added to a {@link Config}, so changes to the {@link Primitive} that was added never reach a snapshot, the values returned by a snapshot are shared with every reader of it so must not be modified
+ *
+ * @author BradBot_1
+ */
+public final class ConfigSnapshot {
+	
+	static final @NotNull ConfigSnapshot EMPTY = new ConfigSnapshot(0, Map.of(), null);
+	/**
+	 * Cached in place of null so that values that cannot be deserialized are not tried again
+	 */
+	private static final @NotNull Object NONE = new Object();
+	
+	private final long version;
+	private final @NotNull Map<String, ConfigValue> values;
+	private final @Nullable String[] topLevelComments;
+	private final @NotNull Map<ConfigPath, Node> index;
+	private final @NotNull Map<ConfigPath, Map<Type, Object>> decoded = new ConcurrentHashMap<ConfigPath, Map<Type, Object>>();
+	/**
+	 * @param values The values, in the order they were added, this map and the values within it are kept so they must not be modified afterwards, see {@link #copy(Primitive)}
+	 */
+	ConfigSnapshot(final long version, @NotNull final Map<String, ConfigValue> values, @Nullable final String[] topLevelComments) {
+		this.version = version;
+		this.values = Collections.unmodifiableMap(values);
+		this.topLevelComments = topLevelComments;
+		this.index = new HashMap<ConfigPath, Node>();
+		for (final Map.Entry<String, ConfigValue> entry : values.entrySet()) {
+			index(this.index, ConfigPath.of(new String[] { entry.getKey() }), entry.getValue().value()); // top level keys may contain dots
+		}
+	}
+	
+	/**
+	 * @return A copy of the value that shares no map or array with it, values that are neither are immutable so are not copied
+	 */
+	static @NotNull Primitive copy(@NotNull final Primitive value) {
+		if (value.isArray()) {
+			final Primitive[] array = value.getAsArray();
+			final Primitive[] copy = new Primitive[array.length];
+			for (int i = 0; i < array.length; i++) {
+				copy[i] = array[i] != null ? copy(array[i]) : null;
+			}
+			return new Primitive(copy);
+		}
+		if (!ConfigDiff.isMap(value)) return value;
+		final PrimitiveMap<String> copy = new PrimitiveMap<String>();
+		for (final Map.Entry<String, Primitive> entry : value.getAsStringBasedMap().entrySet()) {
+			copy.put(entry.getKey(), entry.getValue() != null ? copy(entry.getValue()) : null);
+		}
+		return new Primitive(copy);
+	}
+	/**
+	 * @return The {@link ConfigDiff#hash(Primitive) hash} of the value, computed from those of its children as they are indexed
+	 */
+	private static int index(@NotNull final Map<ConfigPath, Node> index, @NotNull final ConfigPath path, @NotNull final Primitive value) {
+		if (!ConfigDiff.isMap(value)) {
+			final int hash = ConfigDiff.hash(value);
+			index.put(path, new Node(value, hash));
+			return hash;
+		}
+		int hash = 0;
+		for (final Map.Entry<String, Primitive> entry : value.getAsStringBasedMap().entrySet()) {
+			if (!ConfigDiff.isAddressable(entry.getKey(), entry.getValue())) continue;
+			hash += entry.getKey().hashCode() ^ index(index, path.child(entry.getKey()), entry.getValue());
+		}
+		index.put(path, new Node(value, hash));
+		return hash;
+	}
+	/**
+	 * @return The version of this snapshot, every snapshot published to a config has a greater version than the one before it
+	 */
+	public long getVersion() {
+		return this.version;
+	}
+	/**
+	 * @param key The key of the value
+	 * 
+	 * @return The value under the key, or null if there is none
+	 */
+	public @Nullable Primitive getValue(@NotNull final String key) {
+		final ConfigValue value = this.values.get(key);
+		return value != null ? value.value() : null;
+	}
+	/**
+	 * @param path The path to the value
+	 * 
+	 * @return The value at the path, or null if there is none
+	 */
+	public @Nullable Primitive get(@NotNull final ConfigPath path) {
+		final Node node = this.index.get(path);
+		return node != null ? node.value() : null;
+	}
+	/**
+	 * @param path The path to the value
+	 * @param fallback The value to return if there is no number at the path
+	 * 
+	 * @return The number at the path as an int, or the fallback
+	 */
+	public int getInt(@NotNull final ConfigPath path, final int fallback) {
+		final Primitive value = this.get(path);
+		return value != null && value.isNumber() ? value.getAsNumber().intValue() : fallback;
+	}
+	/**
+	 * @param path The path to the value
+	 * @param fallback The value to return if there is no number at the path
+	 * 
+	 * @return The number at the path as a long, or the fallback
+	 */
+	public long getLong(@NotNull final ConfigPath path, final long fallback) {
+		final Primitive value = this.get(path);
+		return value != null && value.isNumber() ? value.getAsNumber().longValue() : fallback;
+	}
+	/**
+	 * @param path The path to the value
+	 * @param fallback The value to return if there is no number at the path
+	 * 
+	 * @return The number at the path as a double, or the fallback
+	 */
+	public double getDouble(@NotNull final ConfigPath path, final double fallback) {
+		final Primitive value = this.get(path);
+		return value != null && value.isNumber() ? value.getAsNumber().doubleValue() : fallback;
+	}
+	/**
+	 * @param path The path to the value
+	 * @param fallback The value to return if there is no boolean at the path
+	 * 
+	 * @return The boolean at the path, or the fallback
+	 */
+	public boolean getBoolean(@NotNull final ConfigPath path, final boolean fallback) {
+		final Primitive value = this.get(path);
+		return value != null && value.isBoolean() ? value.getAsBoolean() : fallback;
+	}
+	/**
+	 * @param path The path to the value
+	 * @param type The type to deserialize the value as
+	 * 
+	 * @return The value, or null if there is none or it cannot be deserialized as the type
+	 */
+	public <V> @Nullable V get(@NotNull final ConfigPath path, @NotNull final Class<V> type) {
+		return this.get(path, (Type) type);
+	}
+	/**
+	 * @param path The path to the value
+	 * @param type The possibly generic type to deserialize the value as, such as {@code List<String>}
+	 * 
+	 * @apiNote Values are shared between every reader of this snapshot, so collections and maps are deserialized as immutable
+	 * 
+	 * @return The value, or null if there is none or it cannot be deserialized as the type
+	 */
+	@SuppressWarnings("unchecked")
+	public <V> @Nullable V get(@NotNull final ConfigPath path, @NotNull final Type type) {
+		Map<Type, Object> byType = this.decoded.get(path);
+		if (byType == null) {
+			if (!this.index.containsKey(path)) return null; // not cached, so missing paths cannot fill the cache
+			byType = this.decoded.computeIfAbsent(path, (p)->new ConcurrentHashMap<Type, Object>(4));
+		}
+		Object value = byType.get(type);
+		if (value == null) {
+			value = this.decode(path, type);
+			final Object existing = byType.putIfAbsent(type, value); // not computeIfAbsent as serializers may be slow
+			if (existing != null) value = existing;
+		}
+		return value != NONE ? (V) value : null;
+	}
+	
+	private @NotNull Object decode(@NotNull final ConfigPath path, @NotNull final Type type) {
+		final Node node = this.index.get(path);
+		if (node == null) return NONE;
+		final Primitive primitive = node.value();
+		final ISerializer<?> serializer = SerializerController.getImmutableSerializerFor(type);
+		if (serializer == null) return NONE;
+		final Object value = handle(()->serializer.deserialize(primitive));
+		return value != null ? value : NONE;
+	}
+	/**
+	 * @param key The key of the value
+	 * 
+	 * @return The comment of the value under the key, or null if there is no value or it has no comment
+	 */
+	public @Nullable String getComment(@NotNull final String key) {
+		final ConfigValue value = this.values.get(key);
+		return value != null && !value.comment().isEmpty() ? value.comment() : null;
+	}
+	/**
+	 * @param key The key of the value
+	 * 
+	 * @return If there is a value under the key
+	 */
+	public boolean has(@NotNull final String key) {
+		return this.values.containsKey(key);
+	}
+	/**
+	 * @return The keys of every value, in the order they were added
+	 */
+	public @NotNull Set<String> getKeys() {
+		return this.values.keySet();
+	}
+	/**
+	 * @return The comments at the top of the config, or null if there are none
+	 */
+	public @Nullable String[] getTopLevelComments() {
+		return this.topLevelComments != null ? this.topLevelComments.clone() : null;
+	}
+	/**
+	 * @return The values of this snapshot as a map, for writing with an adapter
+	 * 
+	 * @apiNote Comments are not included
+	 */
+	public @NotNull Primitive toPrimitive() {
+		final PrimitiveMap<String> map = new PrimitiveMap<String>();
+		for (final Map.Entry<String, ConfigValue> entry : this.values.entrySet()) {
+			map.put(entry.getKey(), entry.getValue().value());
+		}
+		return new Primitive(map);
+	}
+	
+	@NotNull Map<String, ConfigValue> getValues() {
+		return this.values;
+	}
+	/**
+	 * @return The hash of the value at the path, which is only meaningful if there is a value
+	 */
+	int getHash(@NotNull final ConfigPath path) {
+		final Node node = this.index.get(path);
+		return node != null ? node.hash() : 0;
+	}
+	
+	@Override
+	public @NotNull String toString() {
+		return "ConfigSnapshot[version=" + this.version + ", values=" + this.values.size() + "]";
+	}
+	
+	private static record Node(@NotNull Primitive value, int hash) { }
+	
+}
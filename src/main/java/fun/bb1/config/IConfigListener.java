@@ -0,0 +1,42 @@
+package fun.bb1.config;
+
+import java.util.List;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ *
+ * Copyright 2022 BradBot_1
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ * http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ * Notified of the changes made to a {@link Config}
+ *
+ * @see Config#addListener(ConfigPath, IConfigListener)
+ *
+ * @author BradBot_1
+ */
+@FunctionalInterface
+public interface IConfigListener {
+	/**
+	 * Called once per publish with every change that affects the paths the listener was added for
+	 * 
+	 * @param snapshot The snapshot the changes were published in
+	 * @param changes The changes, never empty
+	 * 
+	 * @apiNote If several snapshots are published in quick succession their changes may be delivered together, against the latest of them
+	 */
+	public void onChange(@NotNull final ConfigSnapshot snapshot, @NotNull final List<ConfigChange> changes);
+	
+}
@@ -0,0 +1,172 @@
+package fun.bb1.config;
+
+import java.util.List;
+import java.util.Map;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import fun.bb1.objects.Primitive;
+import fun.bb1.objects.PrimitiveMap;
+
+/**
+ *
+ * Copyright 2022 BradBot_1
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ * http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ * A {@link Config} made from a stack of {@link ConfigLayer}s, each layer overriding the values of those before it
+ * <br>
+ * Maps are merged key by key, so a layer only needs the values it overrides, any other value of a later layer replaces the earlier one as a whole
+ * <br>
+ * The merge of every layer up to and including each layer is kept, so reloading one layer only merges it and the layers after it again, and values that did not change keep the same instances so {@link IConfigListener}s are only told about what did
+ *
+ * @apiNote Reading the merged values is the same as reading any other config, through {@link #getConfig()}
+ *
+ * @author BradBot_1
+ */
+public final class LayeredConfig {
+	
+	private final @NotNull Config config = new Config();
+	private final @NotNull List<ConfigLayer> layers;
+	/**
+	 * The values each layer loaded, guarded by this
+	 */
+	private final @NotNull PrimitiveMap<?>[] loaded;
+	/**
+	 * The merge of every layer up to and including the layer at the same index, guarded by this
+	 */
+	private final @NotNull Map<?, ?>[] merged;
+	/**
+	 * Loads every layer and publishes their merged values
+	 * 
+	 * @param layers The layers, from lowest to highest priority, such as defaults, a file, a per host file, the environment and then system properties
+	 * 
+	 * @throws IllegalArgumentException If two layers have the same name
+	 */
+	public LayeredConfig(@NotNull final ConfigLayer... layers) {
+		this.layers = List.of(layers);
+		for (int i = 0; i < layers.length; i++) {
+			for (int j = 0; j < i; j++) {
+				if (layers[i].getName().equals(layers[j].getName())) throw new IllegalArgumentException("Duplicate layer " + layers[i].getName());
+			}
+		}
+		this.loaded = new PrimitiveMap<?>[layers.length];
+		this.merged = new Map<?, ?>[layers.length];
+		this.reload();
+	}
+	/**
+	 * @return The config holding the merged values of every layer
+	 */
+	public @NotNull Config getConfig() {
+		return this.config;
+	}
+	/**
+	 * @return The layers, from lowest to highest priority
+	 */
+	public @NotNull List<ConfigLayer> getLayers() {
+		return this.layers;
+	}
+	/**
+	 * Loads every layer again and publishes the merged values
+	 * 
+	 * @return The published snapshot, or the current snapshot if no value changed
+	 */
+	public synchronized @NotNull ConfigSnapshot reload() {
+		for (int i = 0; i < this.layers.size(); i++) {
+			this.loaded[i] = this.layers.get(i).load();
+		}
+		return this.remerge(0);
+	}
+	/**
+	 * Loads the named layer again and publishes the merged values, the layers before it are not merged again
+	 * 
+	 * @param name The name of the layer
+	 * 
+	 * @return The published snapshot, or the current snapshot if no value changed
+	 * 
+	 * @throws IllegalArgumentException If there is no layer with the name
+	 */
+	public synchronized @NotNull ConfigSnapshot reload(@NotNull final String name) {
+		for (int i = 0; i < this.layers.size(); i++) {
+			if (!this.layers.get(i).getName().equals(name)) continue;
+			this.loaded[i] = this.layers.get(i).load();
+			return this.remerge(i);
+		}
+		throw new IllegalArgumentException("No layer named " + name);
+	}
+	/**
+	 * Merges the layers from the index onwards on top of the kept merge of the layers before it, then publishes only the top level values that changed
+	 * 
+	 * @return The published snapshot, or the current one if nothing changed
+	 */
+	@SuppressWarnings("unchecked")
+	private @NotNull ConfigSnapshot remerge(final int from) {
+		final Map<String, Primitive> published = this.merged.length > 0 ? (Map<String, Primitive>) this.merged[this.merged.length - 1] : null; // what the last merge published, the snapshot holds copies of it
+		Map<String, Primitive> values = from > 0 ? (Map<String, Primitive>) this.merged[from - 1] : Map.of();
+		for (int i = from; i < this.layers.size(); i++) {
+			final PrimitiveMap<String> layer = (PrimitiveMap<String>) this.loaded[i];
+			if (layer != null && !layer.isEmpty()) values = merge(values, layer, this.layers.get(i));
+			this.merged[i] = values;
+		}
+		final ConfigSnapshot current = this.config.getSnapshot();
+		final Config.Batch batch = this.config.batch();
+		boolean changed = false;
+		for (final Map.Entry<String, Primitive> entry : values.entrySet()) {
+			if (published != null && published.get(entry.getKey()) == entry.getValue()) continue; // the same instance if it was not merged again, so it is already published
+			final Primitive previous = current.getValue(entry.getKey());
+			if (previous != null && ConfigDiff.equal(previous, entry.getValue())) continue;
+			batch.addValue(entry.getKey(), entry.getValue());
+			changed = true;
+		}
+		for (final String key : current.getKeys()) {
+			if (values.containsKey(key)) continue;
+			batch.removeValue(key);
+			changed = true;
+		}
+		return changed ? batch.publish() : current;
+	}
+	/**
+	 * @param layer The layer of the overlay, whose keys replace the keys of the base they equal ignoring case if it is {@link ConfigLayer#isRelaxed() relaxed} and whose strings take the type of the value they override if it is {@link ConfigLayer#isTextual() textual}
+	 * 
+	 * @return The values of the base overridden by those of the overlay, sharing every value of the base that was not overridden
+	 */
+	private static @NotNull Map<String, Primitive> merge(@NotNull final Map<String, Primitive> base, @NotNull final Map<String, Primitive> overlay, @NotNull final ConfigLayer layer) {
+		final PrimitiveMap<String> merged = new PrimitiveMap<String>();
+		merged.putAll(base);
+		for (final Map.Entry<String, Primitive> entry : overlay.entrySet()) {
+			if (!ConfigDiff.isAddressable(entry.getKey(), entry.getValue())) continue;
+			final String key = layer.isRelaxed() ? matchKey(base, entry.getKey()) : entry.getKey();
+			merged.put(key, merge(merged.get(key), entry.getValue(), layer));
+		}
+		return merged;
+	}
+	
+	private static @NotNull Primitive merge(@Nullable final Primitive base, @NotNull final Primitive overlay, @NotNull final ConfigLayer layer) {
+		if (layer.isTextual() && overlay.isString()) return ConfigLayer.coerce(base, overlay.getAsString());
+		if (base == null || !ConfigDiff.isMap(base) || !ConfigDiff.isMap(overlay)) return overlay;
+		return new Primitive((PrimitiveMap<String>) merge(base.getAsStringBasedMap(), overlay.getAsStringBasedMap(), layer));
+	}
+	/**
+	 * @return The key of the base that equals the key ignoring case, or the key itself if there is none
+	 */
+	private static @NotNull String matchKey(@NotNull final Map<String, Primitive> base, @NotNull final String key) {
+		if (base.containsKey(key)) return key;
+		for (final String existing : base.keySet()) {
+			if (existing.equalsIgnoreCase(key)) return existing;
+		}
+		return key;
+	}
+	
+}
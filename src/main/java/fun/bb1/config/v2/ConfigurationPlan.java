@@ -0,0 +1,187 @@
+package fun.bb1.config.v2;
+
+import static fun.bb1.reflection.FieldUtils.getInheritedFields;
+import static java.lang.reflect.Modifier.isFinal;
+import static java.lang.reflect.Modifier.isTransient;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Predicate;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import fun.bb1.config.v2.accessor.AccessorController;
+import fun.bb1.config.v2.accessor.IFieldAccessor;
+import fun.bb1.config.v2.annotations.Configurable;
+import fun.bb1.config.v2.binder.BinderController;
+import fun.bb1.config.v2.binder.IConfigurableBinder;
+import fun.bb1.config.v2.serializer.ISerializer;
+import fun.bb1.config.v2.serializer.SerializerController;
+
+/**
+ * A cached description of how the fields of a class map onto a configuration
+ * <br>
+ * Plans are built once per class, their fields and {@link IFieldAccessor accessors} are kept for the life of the class while their serializers are resolved again if a serializer has been registered since they were resolved
+ * <br>
+ * When a class has a generated {@link IConfigurableBinder} it is used for {@link #ANNOTATED_FIELDS}, and the class is never reflected upon for it
+ *
+ * @apiNote Matched bindings are cached per {@link Predicate} instance, so matchers should be constants where possible
+ */
+final class ConfigurationPlan {
+
+	static final @NotNull Predicate<Field> ALL_FIELDS = (f)->true;
+	static final @NotNull Predicate<Field> ANNOTATED_FIELDS = (f)->f.isAnnotationPresent(Configurable.class);
+
+	private static final @NotNull String[] NO_ALIASES = new String[0];
+	private static final @NotNull ClassValue<ConfigurationPlan> PLANS = new ClassValue<ConfigurationPlan>() {
+
+		@Override
+		protected @NotNull ConfigurationPlan computeValue(@NotNull final Class<?> type) {
+			return new ConfigurationPlan(type);
+		}
+
+	};
+	/**
+	 * @param type The class to get the bindings of
+	 * @param fieldMatcher The matcher used to select which fields are configurable
+	 *
+	 * @return The bindings of every matched, non final and non transient field in the order they were declared
+	 */
+	static @NotNull Binding[] getBindingsFor(@NotNull final Class<?> type, @NotNull final Predicate<Field> fieldMatcher) {
+		return PLANS.get(type).getResolution().getBindings(fieldMatcher);
+	}
+
+	private final @NotNull Class<?> type;
+	private final @Nullable IConfigurableBinder<?> binder;
+	private volatile @Nullable Field[] fields;
+	private volatile @Nullable Resolution resolution;
+
+	private ConfigurationPlan(@NotNull final Class<?> type) {
+		this.type = type;
+		this.binder = BinderController.getBinderFor(type);
+	}
+	/**
+	 * @return The bindings resolved against the serializers currently registered
+	 */
+	private @NotNull Resolution getResolution() {
+		final int generation = SerializerController.getGeneration(); // read before resolving so a concurrent registration causes another resolution
+		Resolution resolution = this.resolution;
+		if (resolution == null || resolution.generation != generation) { // a serializer was registered since this was resolved
+			resolution = new Resolution(generation);
+			this.resolution = resolution;
+		}
+		return resolution;
+	}
+	/**
+	 * Reflects upon the class, this is deferred so that classes with a binder are only reflected upon when a custom matcher is used
+	 */
+	private @NotNull Field[] getFields() {
+		Field[] fields = this.fields;
+		if (fields == null) {
+			final List<Field> matched = new ArrayList<Field>();
+			for (final Field field : getInheritedFields(this.type)) {
+				if (isFinal(field.getModifiers()) || isTransient(field.getModifiers())) continue;
+				matched.add(field);
+			}
+			fields = matched.toArray(Field[]::new);
+			this.fields = fields;
+		}
+		return fields;
+	}
+	/**
+	 * The bindings of the plan for a single generation of {@link SerializerController}
+	 */
+	private final class Resolution {
+
+		private final int generation;
+		private volatile @Nullable Binding[] bindings;
+		private volatile @Nullable Binding[] annotatedBindings;
+		private final @NotNull Map<Predicate<Field>, Binding[]> matchedBindings = Collections.synchronizedMap(new WeakHashMap<Predicate<Field>, Binding[]>());
+
+		private Resolution(final int generation) {
+			this.generation = generation;
+		}
+
+		private @NotNull Binding[] getBindings(@NotNull final Predicate<Field> fieldMatcher) {
+			if (fieldMatcher == ALL_FIELDS) return this.getReflectedBindings();
+			if (fieldMatcher == ANNOTATED_FIELDS) {
+				Binding[] annotatedBindings = this.annotatedBindings;
+				if (annotatedBindings == null) {
+					annotatedBindings = ConfigurationPlan.this.binder != null ? bind(ConfigurationPlan.this.binder) : this.match(ANNOTATED_FIELDS);
+					this.annotatedBindings = annotatedBindings;
+				}
+				return annotatedBindings;
+			}
+			return this.matchedBindings.computeIfAbsent(fieldMatcher, this::match);
+		}
+
+		private @NotNull Binding[] getReflectedBindings() {
+			Binding[] bindings = this.bindings;
+			if (bindings == null) {
+				final Field[] fields = ConfigurationPlan.this.getFields();
+				bindings = new Binding[fields.length];
+				for (int i = 0; i < bindings.length; i++) {
+					bindings[i] = bind(fields[i]);
+				}
+				this.bindings = bindings;
+			}
+			return bindings;
+		}
+
+		private @NotNull Binding[] match(@NotNull final Predicate<Field> fieldMatcher) {
+			final Binding[] bindings = this.getReflectedBindings();
+			final Field[] fields = ConfigurationPlan.this.getFields();
+			final List<Binding> matched = new ArrayList<Binding>(bindings.length);
+			for (int i = 0; i < bindings.length; i++) {
+				if (fieldMatcher.test(fields[i])) matched.add(bindings[i]);
+			}
+			return matched.toArray(Binding[]::new);
+		}
+
+	}
+
+	private static @NotNull Binding bind(@NotNull final Field field) {
+		final @Nullable Configurable fieldAnnotation = field.getAnnotation(Configurable.class);
+		final String nameToSaveUnder = fieldAnnotation != null ? fieldAnnotation.value().isEmpty() ? field.getName() : fieldAnnotation.value() : field.getName();
+		return Binding.of(AccessorController.getAccessorFor(field), field.getGenericType(), nameToSaveUnder, fieldAnnotation != null ? fieldAnnotation.aliases() : NO_ALIASES, fieldAnnotation != null ? fieldAnnotation.comment() : null, fieldAnnotation != null && fieldAnnotation.immutable());
+	}
+
+	private static @NotNull Binding[] bind(@NotNull final IConfigurableBinder<?> binder) {
+		final Binding[] bindings = new Binding[binder.getFieldCount()];
+		for (int i = 0; i < bindings.length; i++) {
+			bindings[i] = Binding.of(AccessorController.getAccessorFor(binder, i), binder.getGenericType(i), binder.getKey(i), binder.getAliases(i), binder.getComment(i), binder.isImmutable(i));
+		}
+		return bindings;
+	}
+	/**
+	 * A single configurable field alongside everything resolved about it
+	 *
+	 * @param accessor The accessor used to read and write the field
+	 * @param key The key the field is saved under
+	 * @param aliases The alternative keys the field may be read from
+	 * @param comment The serialized comment to display alongside the field, null if there is none
+	 * @param serializer The serializer for the type of the field, null if none was registered
+	 * @param unboxedType The primitive type of the field if it is read and written through the primitive methods of the accessor rather than the serializer, see {@link SerializerController#getUnboxedType(ISerializer)}
+	 */
+	record Binding(@NotNull IFieldAccessor accessor, @NotNull String key, @NotNull String[] aliases, @Nullable String comment, @Nullable ISerializer<Object> serializer, @Nullable Class<?> unboxedType) {
+
+		private static @NotNull Binding of(@NotNull final IFieldAccessor accessor, @NotNull final Type type, @NotNull final String key, @NotNull final String[] aliases, @Nullable final String rawComment, final boolean immutable) {
+			String comment = null;
+			if (rawComment != null && !rawComment.isEmpty()) {
+				comment = SerializerController.getSerializerFor(String.class).serialize(rawComment).getAsString();
+			}
+			final @Nullable ISerializer<?> serializer = immutable ? SerializerController.getImmutableSerializerFor(type) : SerializerController.getSerializerFor(type);
+			if (serializer == null) return new Binding(accessor, key, aliases, comment, null, null);
+			final Class<?> unboxedType = SerializerController.getUnboxedType(serializer);
+			return new Binding(accessor, key, aliases, comment, serializer.toObjectSerializer(), unboxedType != null && unboxedType == accessor.getType() ? unboxedType : null);
+		}
+
+	}
+
+}
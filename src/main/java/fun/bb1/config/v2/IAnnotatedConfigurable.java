@@ -1,5 +1,6 @@
 package fun.bb1.config.v2;
 
+import java.nio.file.Path;
 import java.util.logging.Logger;
 
 import org.jetbrains.annotations.NotNull;
@@ -28,6 +29,8 @@ import fun.bb1.config.v2.annotations.Configurable;
  * <br>
  * This class looks for the {@link Configurable} annotation and uses that to determine what should be serialized
  * <br>
+ * If the simple-configs-processor generated a {@link fun.bb1.config.v2.binder.IConfigurableBinder} for the implementor it is used instead of reflection
+ * <br>
  * For a whole class to represent a config look to {@link fun.bb1.config.Configurable}
  * 
  * @author BradBot_1
@@ -38,13 +41,27 @@ public interface IAnnotatedConfigurable extends IConfigurable {
 	 */
 	@Override
 	public default <T> @Nullable T serializeForConfiguration(Class<T> serializeType, @Nullable final Logger logger) {
-		return this.serializeForConfiguration(serializeType, logger, (f)->f.isAnnotationPresent(Configurable.class));
+		return this.serializeForConfiguration(serializeType, logger, ConfigurationPlan.ANNOTATED_FIELDS);
 	}
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
 	public default <T> void deserializeFromConfiguration(Class<T> serializeType, @NotNull final T configuration, @Nullable final Logger logger) {
-		this.deserializeFromConfiguration(serializeType, configuration, logger, (f)->f.isAnnotationPresent(Configurable.class));
+		this.deserializeFromConfiguration(serializeType, configuration, logger, ConfigurationPlan.ANNOTATED_FIELDS);
+	}
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public default <T> boolean deserializeFromFile(Class<T> serializeType, @NotNull final Path path, @Nullable final Logger logger) {
+		return this.deserializeFromFile(serializeType, path, logger, ConfigurationPlan.ANNOTATED_FIELDS);
+	}
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public default <T> boolean serializeToFile(Class<T> serializeType, @NotNull final Path path, @Nullable final Logger logger) {
+		return this.serializeToFile(serializeType, path, logger, ConfigurationPlan.ANNOTATED_FIELDS);
 	}
-}
+}
\ No newline at end of file
@@ -1,13 +1,12 @@
 package fun.bb1.config.v2;
 
-import static fun.bb1.reflection.FieldUtils.getField;
-import static fun.bb1.reflection.FieldUtils.getInheritedFields;
-import static fun.bb1.reflection.FieldUtils.setField;
-import static java.lang.reflect.Modifier.isFinal;
-import static java.lang.reflect.Modifier.isTransient;
-
+import java.io.IOException;
+import java.io.Writer;
 import java.lang.reflect.Field;
+import java.nio.file.Path;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -18,8 +17,10 @@ import java.util.logging.Logger;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import fun.bb1.config.v2.ConfigurationPlan.Binding;
 import fun.bb1.config.v2.adapter.AbstractAdapter;
 import fun.bb1.config.v2.adapter.AdapterController;
+import fun.bb1.config.v2.adapter.IConfigurationSink;
 import fun.bb1.config.v2.annotations.Configurable;
 import fun.bb1.config.v2.serializer.ISerializer;
 import fun.bb1.config.v2.serializer.SerializerController;
@@ -66,39 +67,31 @@ public interface IConfigurable {
 			if (logger != null && this.enableConfigurationLogging()) logger.log(Level.WARNING, "No adapter found for \"" + serializeType.getName() + "\"!");
 			return null;
 		}
-		final Field[] matchedFields = Set.of(getInheritedFields(this.getClass())).stream().filter((f)->fieldMatcher.test(f))
-				  .filter((f)->!isFinal(f.getModifiers()))
-				  .filter((f)->!isTransient(f.getModifiers()))
-				  .toArray((i)->new Field[i]);
+		final Binding[] bindings = ConfigurationPlan.getBindingsFor(this.getClass(), fieldMatcher);
 		final @Nullable Map<String, Class<?>> extraConfigurableTypes = this.getExtraConfigurablesTypes();
-		if (extraConfigurableTypes == null && matchedFields.length < 1) return null; // nothing to save
-		final Map<String, Tuple<Primitive, String>> serializeMap = new HashMap<String, Tuple<Primitive, String>>(); // LinkedHashMap for ordering
-		final Set<String> blacklistedKeys = this.getExtraConfigurablesTypes()!=null ? this.getExtraConfigurablesTypes().keySet() : Set.of();
-		for (final Field field : matchedFields) {
-			final Object fieldValue = getField(field, this);
+		if (extraConfigurableTypes == null && bindings.length < 1) return null; // nothing to save
+		final Map<String, Tuple<Primitive, String>> serializeMap = new LinkedHashMap<String, Tuple<Primitive, String>>();
+		final Set<String> blacklistedKeys = extraConfigurableTypes!=null ? extraConfigurableTypes.keySet() : Set.of();
+		for (final Binding binding : bindings) {
+			final Object fieldValue = binding.accessor().get(this);
 			if (fieldValue == null) continue; // no value to store
-			final ISerializer<?> serializer = SerializerController.getSerializerFor(field.getType());
+			final ISerializer<Object> serializer = binding.serializer();
 			if (serializer == null) {
-				if (logger != null && this.enableConfigurationLogging()) logger.log(Level.WARNING, "No serializer found for \"" + field.getType().getName() + "\"!");
+				if (logger != null && this.enableConfigurationLogging()) logger.log(Level.WARNING, "No serializer found for \"" + binding.accessor().getType().getName() + "\"!");
 				continue;
 			}
-			final @Nullable Configurable fieldAnnotation = field.getAnnotation(Configurable.class);
-			final String nameToSaveUnder = fieldAnnotation != null ? fieldAnnotation.value().isEmpty() ? field.getName() : fieldAnnotation.value() : field.getName();
+			final String nameToSaveUnder = binding.key();
 			if (serializeMap.containsKey(nameToSaveUnder)) {
 				if (logger != null && this.enableConfigurationLogging()) logger.log(Level.WARNING, "The key \"" + nameToSaveUnder + "\" is repeated!");
 				continue;
 			}
 			if (blacklistedKeys.contains(nameToSaveUnder)) continue; // blacklisted
-			final Primitive serializedFieldValue = serializer.toObjectSerializer().serialize(fieldValue);
+			final Primitive serializedFieldValue = serializer.serialize(fieldValue);
 			if (serializedFieldValue == null) {
 				if (logger != null && this.enableConfigurationLogging()) logger.log(Level.WARNING, "Failed to serialize \"" + nameToSaveUnder + "\"!");
 				continue;
 			}
-			String comment = null;
-			if (fieldAnnotation!=null && !fieldAnnotation.comment().isEmpty()) {
-				comment = SerializerController.getSerializerFor(String.class).serialize(fieldAnnotation.comment()).getAsString();
-			}
-			serializeMap.put(nameToSaveUnder, new Tuple<Primitive, String>(serializedFieldValue, comment));
+			serializeMap.put(nameToSaveUnder, new Tuple<Primitive, String>(serializedFieldValue, binding.comment()));
 		}
 		final Map<String, Object> extras = this.getExtraConfigurables();
 		if (extras != null) {
@@ -113,6 +106,97 @@ public interface IConfigurable {
 		}
 		return adapter.translateMap(serializeMap);
 	}
+	/**
+	 * Serializes the implementor of this interface straight into the provided file
+	 * <br>
+	 * If the adapter supports {@link AbstractAdapter#openSink(Writer) sinks} every value is written as it is serialized, without building a {@link Primitive} or the serialization type, elsewise this falls back to {@link #serializeForConfiguration(Class, Logger, Predicate)}
+	 * 
+	 * @param serializeType The {@link Class} of the serialization type to write the file in
+	 * @param path The path to the file to write to
+	 * @param logger An optional {@link Logger}, if null nothing is logged, if not null warnings are logged
+	 * 
+	 * @return If the file was written
+	 */
+	public default <T> boolean serializeToFile(Class<T> serializeType, @NotNull final Path path, @Nullable final Logger logger, @NotNull final Predicate<Field> fieldMatcher) {
+		final AbstractAdapter<T> adapter = AdapterController.getAdapterFor(serializeType);
+		if (adapter == null) {
+			if (logger != null && this.enableConfigurationLogging()) logger.log(Level.WARNING, "No adapter found for \"" + serializeType.getName() + "\"!");
+			return false;
+		}
+		final Binding[] bindings = ConfigurationPlan.getBindingsFor(this.getClass(), fieldMatcher);
+		final @Nullable Map<String, Class<?>> extraConfigurableTypes = this.getExtraConfigurablesTypes();
+		if (extraConfigurableTypes == null && bindings.length < 1) return false; // nothing to save
+		if (adapter.supportsSinks()) return adapter.streamToFile(path, (sink)->this.serializeToSink(sink, bindings, extraConfigurableTypes, logger));
+		final T serialized = this.serializeForConfiguration(serializeType, logger, fieldMatcher);
+		return serialized != null && adapter.writeToFile(path, serialized);
+	}
+	
+	private void serializeToSink(@NotNull final IConfigurationSink sink, @NotNull final Binding[] bindings, @Nullable final Map<String, Class<?>> extraConfigurableTypes, @Nullable final Logger logger) throws IOException {
+		final Set<String> writtenKeys = new HashSet<String>();
+		final Set<String> blacklistedKeys = extraConfigurableTypes!=null ? extraConfigurableTypes.keySet() : Set.of();
+		sink.beginObject();
+		for (final Binding binding : bindings) {
+			final Object fieldValue = binding.unboxedType() == null ? binding.accessor().get(this) : null; // read after the key is checked if it is unboxed
+			if (fieldValue == null && binding.unboxedType() == null) continue; // no value to store
+			final ISerializer<Object> serializer = binding.serializer();
+			if (serializer == null) {
+				if (logger != null && this.enableConfigurationLogging()) logger.log(Level.WARNING, "No serializer found for \"" + binding.accessor().getType().getName() + "\"!");
+				continue;
+			}
+			final String nameToSaveUnder = binding.key();
+			if (blacklistedKeys.contains(nameToSaveUnder)) continue; // blacklisted
+			if (!writtenKeys.add(nameToSaveUnder)) {
+				if (logger != null && this.enableConfigurationLogging()) logger.log(Level.WARNING, "The key \"" + nameToSaveUnder + "\" is repeated!");
+				continue;
+			}
+			if (binding.comment() != null) sink.comment(binding.comment());
+			sink.key(nameToSaveUnder);
+			if (binding.unboxedType() != null) {
+				this.writeUnboxed(sink, binding);
+			} else {
+				serializer.serializeTo(sink, fieldValue);
+			}
+		}
+		final Map<String, Object> extras = this.getExtraConfigurables();
+		if (extras != null) {
+			for (final Entry<String, Object> entry : extras.entrySet()) {
+				final ISerializer<?> serializer = SerializerController.getSerializerFor(entry.getValue().getClass());
+				if (serializer == null) {
+					if (logger != null && this.enableConfigurationLogging()) logger.log(Level.WARNING, "No serializer found for \"" + entry.getValue().getClass().getName() + "\"!");
+					continue;
+				}
+				sink.key(entry.getKey());
+				serializer.toObjectSerializer().serializeTo(sink, entry.getValue());
+			}
+		}
+		sink.endObject();
+	}
+	
+	private void writeUnboxed(@NotNull final IConfigurationSink sink, @NotNull final Binding binding) throws IOException {
+		final Class<?> type = binding.unboxedType();
+		if (type == int.class) {
+			sink.value((long) binding.accessor().getInt(this));
+		} else if (type == long.class) {
+			sink.value(binding.accessor().getLong(this));
+		} else if (type == double.class) {
+			sink.value(binding.accessor().getDouble(this));
+		} else {
+			sink.value(binding.accessor().getBoolean(this));
+		}
+	}
+	
+	private void readUnboxed(@NotNull final Primitive primitive, @NotNull final Binding binding) {
+		final Class<?> type = binding.unboxedType();
+		if (type == int.class) {
+			binding.accessor().setInt(this, primitive.getAsNumber().intValue());
+		} else if (type == long.class) {
+			binding.accessor().setLong(this, primitive.getAsNumber().longValue());
+		} else if (type == double.class) {
+			binding.accessor().setDouble(this, primitive.getAsNumber().doubleValue());
+		} else {
+			binding.accessor().setBoolean(this, primitive.getAsBoolean());
+		}
+	}
 	/**
 	 * Deserializes the implementor of this interface with the provided serialized object
 	 * 
@@ -126,9 +210,35 @@ public interface IConfigurable {
 			if (logger != null && this.enableConfigurationLogging()) logger.log(Level.WARNING, "No adapter found for \"" + serializeType.getName() + "\"!");
 			return;
 		}
+		this.deserializeFromConfiguration(adapter.translate(configuration).getAsStringBasedMap(), logger, fieldMatcher);
+	}
+	/**
+	 * Deserializes the implementor of this interface from the provided file, which is read straight into its {@link Primitive} form without building the serialization type
+	 * 
+	 * @param serializeType The {@link Class} of the serialization type the file is written in
+	 * @param path The path to the file to read
+	 * @param logger An optional {@link Logger}, if null nothing is logged, if not null warnings are logged
+	 * 
+	 * @return If the file was read
+	 */
+	public default <T> boolean deserializeFromFile(Class<T> serializeType, @NotNull final Path path, @Nullable final Logger logger, @NotNull final Predicate<Field> fieldMatcher) {
+		final AbstractAdapter<T> adapter = AdapterController.getAdapterFor(serializeType);
+		if (adapter == null) {
+			if (logger != null && this.enableConfigurationLogging()) logger.log(Level.WARNING, "No adapter found for \"" + serializeType.getName() + "\"!");
+			return false;
+		}
+		final Primitive configuration = adapter.readFromFile(path);
+		if (configuration == null) {
+			if (logger != null && this.enableConfigurationLogging()) logger.log(Level.WARNING, "Failed to read \"" + path + "\"!");
+			return false;
+		}
+		this.deserializeFromConfiguration(configuration.getAsStringBasedMap(), logger, fieldMatcher);
+		return true;
+	}
+	
+	private void deserializeFromConfiguration(@NotNull final PrimitiveMap<String> serializeMap, @Nullable final Logger logger, @NotNull final Predicate<Field> fieldMatcher) {
 		final @Nullable Map<String, Class<?>> extraConfigurableTypes = this.getExtraConfigurablesTypes();
 		final Set<String> blacklistedKeys = extraConfigurableTypes!=null ? extraConfigurableTypes.keySet() : Set.of();
-		final PrimitiveMap<String> serializeMap = adapter.translate(configuration).getAsStringBasedMap();
 		if (extraConfigurableTypes != null) {
 			final Map<String, Object> extras = new HashMap<String, Object>();
 			for (final Entry<String, Class<?>> entry : extraConfigurableTypes.entrySet()) {
@@ -145,22 +255,29 @@ public interface IConfigurable {
 			}
 			this.setExtraConfigurables(extras);
 		}
-		final Field[] matchedFields = Set.of(getInheritedFields(this.getClass())).stream().filter((f)->fieldMatcher.test(f))
-																						  .filter((f)->!isFinal(f.getModifiers()))
-																						  .filter((f)->!isTransient(f.getModifiers()))
-																						  .toArray((i)->new Field[i]);
-		if (matchedFields.length == 0) return; // no fields to set
-		for (final Field field : matchedFields) {
-			final @Nullable Configurable fieldAnnotation = field.getAnnotation(Configurable.class);
-			final String nameToSaveUnder = fieldAnnotation != null ? fieldAnnotation.value().isEmpty() ? field.getName() : fieldAnnotation.value() : field.getName();
+		final Binding[] bindings = ConfigurationPlan.getBindingsFor(this.getClass(), fieldMatcher);
+		if (bindings.length == 0) return; // no fields to set
+		for (final Binding binding : bindings) {
+			String nameToSaveUnder = binding.key();
+			if (!serializeMap.containsKey(nameToSaveUnder)) {
+				for (final String alias : binding.aliases()) {
+					if (!serializeMap.containsKey(alias)) continue;
+					nameToSaveUnder = alias;
+					break;
+				}
+			}
 			if (!serializeMap.containsKey(nameToSaveUnder)) {
-				if (logger != null && this.enableConfigurationLogging()) logger.log(Level.WARNING, "The key \"" + nameToSaveUnder + "\" was not found in the configuration");
+				if (logger != null && this.enableConfigurationLogging()) logger.log(Level.WARNING, "The key \"" + binding.key() + "\" was not found in the configuration");
 				continue;
 			}
 			if (blacklistedKeys.contains(nameToSaveUnder)) continue; // blacklisted
-			final ISerializer<?> serializer = SerializerController.getSerializerFor(field.getType());
+			final ISerializer<Object> serializer = binding.serializer();
 			if (serializer == null) {
-				if (logger != null && this.enableConfigurationLogging()) logger.log(Level.WARNING, "No serializer found for \"" + field.getType().getName() + "\"!");
+				if (logger != null && this.enableConfigurationLogging()) logger.log(Level.WARNING, "No serializer found for \"" + binding.accessor().getType().getName() + "\"!");
+				continue;
+			}
+			if (binding.unboxedType() != null) {
+				this.readUnboxed(serializeMap.get(nameToSaveUnder), binding);
 				continue;
 			}
 			final Object deserializedValue = serializer.deserialize(serializeMap.get(nameToSaveUnder));
@@ -168,7 +285,11 @@ public interface IConfigurable {
 				if (logger != null && this.enableConfigurationLogging()) logger.log(Level.WARNING, "Failed to deserialize \"" + nameToSaveUnder + "\"!");
 				continue;
 			}
-			setField(field, this, deserializedValue);
+			try {
+				binding.accessor().set(this, deserializedValue);
+			} catch (final RuntimeException e) { // a serializer inherited from a supertype may not produce the exact type
+				if (logger != null && this.enableConfigurationLogging()) logger.log(Level.WARNING, "Cannot assign the value of \"" + nameToSaveUnder + "\" to \"" + binding.accessor().getType().getName() + "\"!");
+			}
 		}
 	}
 	/**
@@ -216,7 +337,7 @@ public interface IConfigurable {
 	 * @return The serialized form of the data
 	 */
 	public default <T> @Nullable T serializeForConfiguration(Class<T> serializeType, @Nullable final Logger logger) {
-		return this.serializeForConfiguration(serializeType, logger, (f)->true);
+		return this.serializeForConfiguration(serializeType, logger, ConfigurationPlan.ALL_FIELDS);
 	}
 	/**
 	 * Deserializes the implementor of this interface with the provided serialized object
@@ -228,6 +349,34 @@ public interface IConfigurable {
 	 * @apiNote Forwards to {@link #deserializeFromConfiguration(Class, Object, Logger, Predicate)}
 	 */
 	public default <T> void deserializeFromConfiguration(Class<T> serializeType, @NotNull final T configuration, @Nullable final Logger logger) {
-		this.deserializeFromConfiguration(serializeType, configuration, logger, (f)->true);
+		this.deserializeFromConfiguration(serializeType, configuration, logger, ConfigurationPlan.ALL_FIELDS);
+	}
+	/**
+	 * Deserializes the implementor of this interface from the provided file
+	 * 
+	 * @param serializeType The {@link Class} of the serialization type the file is written in
+	 * @param path The path to the file to read
+	 * @param logger An optional {@link Logger}, if null nothing is logged, if not null warnings are logged
+	 * 
+	 * @apiNote Forwards to {@link #deserializeFromFile(Class, Path, Logger, Predicate)}
+	 * 
+	 * @return If the file was read
+	 */
+	public default <T> boolean deserializeFromFile(Class<T> serializeType, @NotNull final Path path, @Nullable final Logger logger) {
+		return this.deserializeFromFile(serializeType, path, logger, ConfigurationPlan.ALL_FIELDS);
+	}
+	/**
+	 * Serializes the implementor of this interface straight into the provided file
+	 * 
+	 * @param serializeType The {@link Class} of the serialization type to write the file in
+	 * @param path The path to the file to write to
+	 * @param logger An optional {@link Logger}, if null nothing is logged, if not null warnings are logged
+	 * 
+	 * @apiNote Forwards to {@link #serializeToFile(Class, Path, Logger, Predicate)}
+	 * 
+	 * @return If the file was written
+	 */
+	public default <T> boolean serializeToFile(Class<T> serializeType, @NotNull final Path path, @Nullable final Logger logger) {
+		return this.serializeToFile(serializeType, path, logger, ConfigurationPlan.ALL_FIELDS);
 	}
-}
+}
\ No newline at end of file
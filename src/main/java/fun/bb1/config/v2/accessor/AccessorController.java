@@ -0,0 +1,75 @@
+package fun.bb1.config.v2.accessor;
+
+import static fun.bb1.exceptions.handler.ExceptionHandler.handle;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.jetbrains.annotations.NotNull;
+
+import fun.bb1.config.v2.binder.IConfigurableBinder;
+
+public final class AccessorController {
+	
+	private static volatile @NotNull AccessorCache accessors = new AccessorCache(AccessorController::createDefaultAccessor);
+	/**
+	 * @param field The field to access
+	 * 
+	 * @apiNote Accessors are built once per field by the current accessor factory and reused after that
+	 * 
+	 * @return An accessor for the field
+	 */
+	public static final @NotNull IFieldAccessor getAccessorFor(@NotNull final Field field) {
+		final AccessorCache accessors = AccessorController.accessors;
+		return accessors.get(field.getDeclaringClass()).computeIfAbsent(field.getName(), (name)->accessors.factory.apply(field)); // keyed by name as every lookup of a field returns a new Field
+	}
+	/**
+	 * @param binder The generated binder
+	 * @param index The index of the field within the binder
+	 * 
+	 * @return An accessor for the field, backed by the binder
+	 */
+	@SuppressWarnings("unchecked")
+	public static final @NotNull IFieldAccessor getAccessorFor(@NotNull final IConfigurableBinder<?> binder, final int index) {
+		return new BinderFieldAccessor((IConfigurableBinder<Object>) binder, index);
+	}
+	/**
+	 * Replaces how {@link IFieldAccessor}s are built
+	 * 
+	 * @param factory The new factory, {@link #createDefaultAccessor(Field)} may be used as a fallback
+	 * 
+	 * @apiNote Accessors built by the previous factory are discarded, but they are also held by the configuration plans of classes that have already been configured, so this should be set before anything is configured
+	 */
+	public static final void setAccessorFactory(@NotNull final Function<Field, IFieldAccessor> factory) {
+		accessors = new AccessorCache(factory);
+	}
+	/**
+	 * @param field The field to access
+	 * 
+	 * @return A {@link java.lang.invoke.MethodHandle} based accessor, or a reflective one if the field cannot be looked up
+	 */
+	public static final @NotNull IFieldAccessor createDefaultAccessor(@NotNull final Field field) {
+		final IFieldAccessor accessor = handle(()->MethodHandleAccessorFactory.of(field));
+		return accessor != null ? accessor : new ReflectiveFieldAccessor(field);
+	}
+	/**
+	 * The accessors of each class by field name, alongside the factory that built them
+	 */
+	private static final class AccessorCache extends ClassValue<Map<String, IFieldAccessor>> {
+		
+		private final @NotNull Function<Field, IFieldAccessor> factory;
+		
+		private AccessorCache(@NotNull final Function<Field, IFieldAccessor> factory) {
+			this.factory = factory;
+		}
+		
+		@Override
+		protected @NotNull Map<String, IFieldAccessor> computeValue(@NotNull final Class<?> type) {
+			return new ConcurrentHashMap<String, IFieldAccessor>();
+		}
+		
+	}
+	
+}
@@ -0,0 +1,35 @@
+package fun.bb1.config.v2.accessor;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import fun.bb1.config.v2.binder.IConfigurableBinder;
+/**
+ * An accessor that forwards to a single field of a generated {@link IConfigurableBinder}
+ */
+final class BinderFieldAccessor implements IFieldAccessor {
+	
+	private final @NotNull IConfigurableBinder<Object> binder;
+	private final int index;
+	
+	BinderFieldAccessor(@NotNull final IConfigurableBinder<Object> binder, final int index) {
+		this.binder = binder;
+		this.index = index;
+	}
+	
+	@Override
+	public @NotNull Class<?> getType() {
+		return this.binder.getType(this.index);
+	}
+
+	@Override
+	public @Nullable Object get(@Nullable final Object instance) {
+		return this.binder.get(instance, this.index);
+	}
+
+	@Override
+	public void set(@Nullable final Object instance, @Nullable final Object value) {
+		this.binder.set(instance, this.index, value);
+	}
+
+}
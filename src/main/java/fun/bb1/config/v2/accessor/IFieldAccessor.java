@@ -0,0 +1,80 @@
+package fun.bb1.config.v2.accessor;
+
+import java.lang.reflect.Field;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * 
+ * Copyright 2022 BradBot_1
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ * http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ * Reads and writes a single field, built once per {@link Field} (or generated binder field) by the {@link AccessorController}
+ * <br>
+ * The primitive methods only avoid boxing when the field is of that exact primitive type, elsewise they unbox {@link #get(Object)}
+ * 
+ * @apiNote For static fields the instance is ignored
+ */
+public interface IFieldAccessor {
+	/**
+	 * @return The type of the field this accessor reads and writes
+	 */
+	public @NotNull Class<?> getType();
+	/**
+	 * @param instance The object to read the field of
+	 * 
+	 * @return The current value of the field
+	 */
+	public @Nullable Object get(@Nullable final Object instance);
+	/**
+	 * @param instance The object to write the field of
+	 * @param value The value to set the field to
+	 */
+	public void set(@Nullable final Object instance, @Nullable final Object value);
+	
+	public default int getInt(@Nullable final Object instance) {
+		return ((Number) this.get(instance)).intValue();
+	}
+	
+	public default void setInt(@Nullable final Object instance, final int value) {
+		this.set(instance, value);
+	}
+	
+	public default long getLong(@Nullable final Object instance) {
+		return ((Number) this.get(instance)).longValue();
+	}
+	
+	public default void setLong(@Nullable final Object instance, final long value) {
+		this.set(instance, value);
+	}
+	
+	public default double getDouble(@Nullable final Object instance) {
+		return ((Number) this.get(instance)).doubleValue();
+	}
+	
+	public default void setDouble(@Nullable final Object instance, final double value) {
+		this.set(instance, value);
+	}
+	
+	public default boolean getBoolean(@Nullable final Object instance) {
+		return (Boolean) this.get(instance);
+	}
+	
+	public default void setBoolean(@Nullable final Object instance, final boolean value) {
+		this.set(instance, value);
+	}
+	
+}
@@ -0,0 +1,67 @@
+package fun.bb1.config.v2.accessor;
+
+import static java.lang.invoke.MethodType.methodType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.List;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+/**
+ * Builds {@link MethodHandleFieldAccessor}s, defining a hidden copy of it per field so that its handles are static final
+ */
+final class MethodHandleAccessorFactory {
+	
+	private static volatile @Nullable byte[] template;
+	
+	private MethodHandleAccessorFactory() { }
+	/**
+	 * @param field The field to build an accessor for
+	 * 
+	 * @throws IllegalAccessException If the field cannot be reached from this module
+	 * @throws IOException If the class file of {@link MethodHandleFieldAccessor} cannot be read
+	 * 
+	 * @return An accessor for the field
+	 */
+	static @NotNull IFieldAccessor of(@NotNull final Field field) throws IllegalAccessException, IOException {
+		final MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(field.getDeclaringClass(), MethodHandles.lookup());
+		MethodHandle getter = lookup.unreflectGetter(field);
+		MethodHandle setter = lookup.unreflectSetter(field);
+		if (Modifier.isStatic(field.getModifiers())) {
+			getter = MethodHandles.dropArguments(getter, 0, Object.class);
+			setter = MethodHandles.dropArguments(setter, 0, Object.class);
+		}
+		final Class<?> type = field.getType();
+		final List<Object> classData = List.of(type, 
+											   getter.asType(methodType(Object.class, Object.class)), 
+											   setter.asType(methodType(void.class, Object.class, Object.class)),
+											   getter.asType(methodType(type, Object.class)),
+											   setter.asType(methodType(void.class, Object.class, type)));
+		final MethodHandles.Lookup accessorLookup = MethodHandles.lookup().defineHiddenClassWithClassData(getTemplate(), classData, true);
+		try {
+			return (IFieldAccessor) accessorLookup.findConstructor(accessorLookup.lookupClass(), methodType(void.class)).invoke();
+		} catch (final IllegalAccessException | RuntimeException | Error e) {
+			throw e;
+		} catch (final Throwable e) { // the constructor is empty
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	private static @NotNull byte[] getTemplate() throws IOException {
+		byte[] template = MethodHandleAccessorFactory.template;
+		if (template == null) {
+			try (final InputStream stream = MethodHandleFieldAccessor.class.getResourceAsStream(MethodHandleFieldAccessor.class.getSimpleName() + ".class")) {
+				if (stream == null) throw new IOException("The class file of " + MethodHandleFieldAccessor.class.getName() + " is not available");
+				template = stream.readAllBytes();
+			}
+			MethodHandleAccessorFactory.template = template;
+		}
+		return template;
+	}
+	
+}
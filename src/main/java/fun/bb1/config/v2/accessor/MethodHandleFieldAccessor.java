@@ -0,0 +1,164 @@
+package fun.bb1.config.v2.accessor;
+
+import static java.lang.constant.ConstantDescs.DEFAULT_NAME;
+import static java.lang.invoke.MethodHandles.classDataAt;
+import static java.lang.invoke.MethodHandles.lookup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Field;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+/**
+ * An accessor backed by {@link MethodHandle}s held in static final fields, so the JIT can treat them as constants and inline the field access itself
+ * <br>
+ * This class is never loaded as is, {@link MethodHandleAccessorFactory} defines a hidden copy of it per field with the handles as its class data, in the order {@link #TYPE}, {@link #GETTER}, {@link #SETTER}, {@link #TYPED_GETTER}, {@link #TYPED_SETTER}
+ * <br>
+ * Every handle is adapted to take an {@link Object} instance so it can be invoked exactly, static fields simply ignore it
+ * 
+ * @apiNote The checks against {@link #TYPE} are folded away once compiled, so only the typed path of the field's own type remains
+ */
+final class MethodHandleFieldAccessor implements IFieldAccessor {
+	
+	private static final @NotNull Class<?> TYPE;
+	private static final @NotNull MethodHandle GETTER;
+	private static final @NotNull MethodHandle SETTER;
+	private static final @NotNull MethodHandle TYPED_GETTER;
+	private static final @NotNull MethodHandle TYPED_SETTER;
+	
+	static {
+		try {
+			TYPE = classDataAt(lookup(), DEFAULT_NAME, Class.class, 0);
+			GETTER = classDataAt(lookup(), DEFAULT_NAME, MethodHandle.class, 1);
+			SETTER = classDataAt(lookup(), DEFAULT_NAME, MethodHandle.class, 2);
+			TYPED_GETTER = classDataAt(lookup(), DEFAULT_NAME, MethodHandle.class, 3);
+			TYPED_SETTER = classDataAt(lookup(), DEFAULT_NAME, MethodHandle.class, 4);
+		} catch (final IllegalAccessException e) {
+			throw new IllegalStateException("Only hidden copies of this class can be initialized", e);
+		}
+	}
+	
+	MethodHandleFieldAccessor() { }
+	
+	@Override
+	public @NotNull Class<?> getType() {
+		return TYPE;
+	}
+
+	@Override
+	public @Nullable Object get(@Nullable final Object instance) {
+		try {
+			return (Object) GETTER.invokeExact(instance);
+		} catch (Throwable e) {
+			throw rethrow(e);
+		}
+	}
+
+	@Override
+	public void set(@Nullable final Object instance, @Nullable final Object value) {
+		try {
+			SETTER.invokeExact(instance, value);
+		} catch (Throwable e) {
+			throw rethrow(e);
+		}
+	}
+	
+	@Override
+	public int getInt(@Nullable final Object instance) {
+		if (TYPE != int.class) return IFieldAccessor.super.getInt(instance);
+		try {
+			return (int) TYPED_GETTER.invokeExact(instance);
+		} catch (Throwable e) {
+			throw rethrow(e);
+		}
+	}
+	
+	@Override
+	public void setInt(@Nullable final Object instance, final int value) {
+		if (TYPE != int.class) {
+			IFieldAccessor.super.setInt(instance, value);
+			return;
+		}
+		try {
+			TYPED_SETTER.invokeExact(instance, value);
+		} catch (Throwable e) {
+			throw rethrow(e);
+		}
+	}
+	
+	@Override
+	public long getLong(@Nullable final Object instance) {
+		if (TYPE != long.class) return IFieldAccessor.super.getLong(instance);
+		try {
+			return (long) TYPED_GETTER.invokeExact(instance);
+		} catch (Throwable e) {
+			throw rethrow(e);
+		}
+	}
+	
+	@Override
+	public void setLong(@Nullable final Object instance, final long value) {
+		if (TYPE != long.class) {
+			IFieldAccessor.super.setLong(instance, value);
+			return;
+		}
+		try {
+			TYPED_SETTER.invokeExact(instance, value);
+		} catch (Throwable e) {
+			throw rethrow(e);
+		}
+	}
+	
+	@Override
+	public double getDouble(@Nullable final Object instance) {
+		if (TYPE != double.class) return IFieldAccessor.super.getDouble(instance);
+		try {
+			return (double) TYPED_GETTER.invokeExact(instance);
+		} catch (Throwable e) {
+			throw rethrow(e);
+		}
+	}
+	
+	@Override
+	public void setDouble(@Nullable final Object instance, final double value) {
+		if (TYPE != double.class) {
+			IFieldAccessor.super.setDouble(instance, value);
+			return;
+		}
+		try {
+			TYPED_SETTER.invokeExact(instance, value);
+		} catch (Throwable e) {
+			throw rethrow(e);
+		}
+	}
+	
+	@Override
+	public boolean getBoolean(@Nullable final Object instance) {
+		if (TYPE != boolean.class) return IFieldAccessor.super.getBoolean(instance);
+		try {
+			return (boolean) TYPED_GETTER.invokeExact(instance);
+		} catch (Throwable e) {
+			throw rethrow(e);
+		}
+	}
+	
+	@Override
+	public void setBoolean(@Nullable final Object instance, final boolean value) {
+		if (TYPE != boolean.class) {
+			IFieldAccessor.super.setBoolean(instance, value);
+			return;
+		}
+		try {
+			TYPED_SETTER.invokeExact(instance, value);
+		} catch (Throwable e) {
+			throw rethrow(e);
+		}
+	}
+	
+	private static @NotNull RuntimeException rethrow(@NotNull final Throwable e) {
+		if (e instanceof final RuntimeException runtimeException) return runtimeException;
+		if (e instanceof final Error error) throw error;
+		return new IllegalStateException(e);
+	}
+
+}
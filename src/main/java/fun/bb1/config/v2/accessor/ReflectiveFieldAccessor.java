@@ -0,0 +1,35 @@
+package fun.bb1.config.v2.accessor;
+
+import java.lang.reflect.Field;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import fun.bb1.reflection.FieldUtils;
+/**
+ * The fallback accessor, used when a field cannot be reached via a {@link java.lang.invoke.MethodHandles.Lookup}
+ */
+final class ReflectiveFieldAccessor implements IFieldAccessor {
+	
+	private final @NotNull Field field;
+	
+	ReflectiveFieldAccessor(@NotNull final Field field) {
+		this.field = field;
+	}
+	
+	@Override
+	public @NotNull Class<?> getType() {
+		return this.field.getType();
+	}
+
+	@Override
+	public @Nullable Object get(@Nullable final Object instance) {
+		return FieldUtils.getField(this.field, instance);
+	}
+
+	@Override
+	public void set(@Nullable final Object instance, @Nullable final Object value) {
+		FieldUtils.setField(this.field, instance, value);
+	}
+
+}
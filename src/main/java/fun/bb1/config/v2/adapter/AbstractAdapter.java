@@ -2,23 +2,69 @@ package fun.bb1.config.v2.adapter;
 
 import static fun.bb1.exceptions.handler.ExceptionHandler.handle;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
 
 import org.jetbrains.annotations.ApiStatus.Internal;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import fun.bb1.config.v2.IAnnotatedConfigurable;
+import fun.bb1.config.v2.adapter.ContentDigest.DigestingInputStream;
+import fun.bb1.config.v2.adapter.ContentDigest.DigestingOutputStream;
 import fun.bb1.objects.Primitive;
 import fun.bb1.objects.Tuple;
 import fun.bb1.registry.IRegisterable;
 
 public abstract class AbstractAdapter<T> implements IRegisterable<Void> {
+	/**
+	 * Files smaller than this are read as a stream, as they are quicker to read than to map
+	 */
+	private static final long MEMORY_MAP_THRESHOLD = 64 * 1024;
+	/**
+	 * Windows refuses to replace a file whilst it is mapped, and a mapping is only released once its buffer is garbage collected
+	 */
+	private static final boolean LOCKS_MAPPED_FILES = System.getProperty("os.name", "").toLowerCase(Locale.ROOT).startsWith("windows");
 	
 	private final @NotNull Class<T> clazz;
+	private volatile boolean skipUnchangedWrites = false;
+	private volatile boolean verifyUnchangedOnDisk = false;
+	/**
+	 * The content last written to or read from each file, only tracked whilst {@link #skipUnchangedWrites} is enabled
+	 */
+	private final @NotNull Map<Path, ContentDigest> contentDigests = new ConcurrentHashMap<Path, ContentDigest>();
+	private final @NotNull LongAdder skippedWrites = new LongAdder();
+	private final @NotNull LongAdder performedWrites = new LongAdder();
+	private volatile @Nullable SnapshotCache snapshotCache = null;
+	private volatile int parallelThreshold = 0;
+	private volatile boolean memoryMapping = !LOCKS_MAPPED_FILES;
 	
 	protected AbstractAdapter(@NotNull final Class<T> clazz) {
 		this.clazz = clazz;
@@ -40,6 +86,70 @@ public abstract class AbstractAdapter<T> implements IRegisterable<Void> {
 	public abstract @NotNull String convertToString(@NotNull final T primitive);
 	
 	public abstract @NotNull T convertFromString(@NotNull final String primitive);
+	/**
+	 * Writes the provided data to the writer in the same format as {@link #convertToString(Object)}
+	 * 
+	 * @param writer The writer to write to, this is not flushed or closed
+	 * @param t The data to write
+	 * 
+	 * @apiNote The default implementation builds the whole document with {@link #convertToString(Object)}, adapters should override this to write it as it is produced
+	 * 
+	 * @throws IOException If the writer fails
+	 */
+	public void writeTo(@NotNull final Writer writer, @NotNull final T t) throws IOException {
+		writer.write(this.convertToString(t));
+	}
+	/**
+	 * Opens a sink that writes values to the writer in the same format as {@link #writeTo(Writer, Object)} as they are received, without building a {@link Primitive} or T first
+	 * 
+	 * @param writer The writer to write to, this is not closed
+	 * 
+	 * @apiNote The default implementation returns null, in which case callers should fall back to {@link #writeTo(Writer, Object)}, adapters that override this should also override {@link #supportsSinks()}
+	 * 
+	 * @return A sink writing to the writer, or null if this adapter does not support them
+	 * 
+	 * @throws IOException If the writer fails
+	 */
+	public @Nullable IConfigurationSink openSink(@NotNull final Writer writer) throws IOException {
+		return null;
+	}
+	/**
+	 * Opens a sink that writes values to the stream in the same format as {@link #writeTo(OutputStream, Object)}, this is what files are streamed with
+	 * 
+	 * @param stream The stream to write to, this is not closed
+	 * 
+	 * @apiNote Forwards to {@link #openSink(Writer)} with a UTF-8 writer, which the sink flushes when it is {@link IConfigurationSink#flush() flushed}, so adapters for binary formats should override it
+	 * 
+	 * @return A sink writing to the stream, or null if this adapter does not support them
+	 * 
+	 * @throws IOException If the stream fails
+	 */
+	public @Nullable IConfigurationSink openSink(@NotNull final OutputStream stream) throws IOException {
+		return this.openSink(new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8)));
+	}
+	/**
+	 * @apiNote The default implementation returns false, adapters that override {@link #openSink(Writer)} should override this to return true
+	 * 
+	 * @return If {@link #openSink(Writer)} returns a sink, so that callers can check before opening anything they would write to
+	 */
+	public boolean supportsSinks() {
+		return false;
+	}
+	/**
+	 * Writes the provided data to the stream as UTF-8
+	 * 
+	 * @param stream The stream to write to, this is flushed but not closed
+	 * @param t The data to write
+	 * 
+	 * @apiNote Forwards to {@link #writeTo(Writer, Object)}, this is what files are written with so adapters for binary formats should override it
+	 * 
+	 * @throws IOException If the stream fails
+	 */
+	public void writeTo(@NotNull final OutputStream stream, @NotNull final T t) throws IOException {
+		final Writer writer = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+		this.writeTo(writer, t);
+		writer.flush();
+	}
 	/**
 	 * Writes the provided data to the specified file
 	 * 
@@ -72,10 +182,371 @@ public abstract class AbstractAdapter<T> implements IRegisterable<Void> {
 	 * @param path The path to the file to save to
 	 * @param t The data to save
 	 * 
+	 * @apiNote The data is streamed to the file with {@link #writeTo(OutputStream, Object)}, so the document is never held in memory as a whole
+	 * <br>
+	 * The file is written in place, so symbolic links, hard links and the owner and attributes of the file are kept, use {@link #writeToFileAtomically(Path, Object, boolean)} if a failure part way through must leave the file as it was
+	 * 
 	 * @return If the data was writ to the file
 	 */
 	public boolean writeToFile(@NotNull final Path path, @NotNull final T t) {
-		return handle(()->Files.writeString(path, this.convertToString(t))) != null;
+		return this.writeIfChanged(path, (stream)->this.writeTo(stream, t), (target)->{
+			try (final OutputStream stream = Files.newOutputStream(target)) {
+				this.writeTo(stream, t);
+			}
+		});
+	}
+	/**
+	 * Writes the provided data to a temporary file beside the specified file and then moves it over the file, so the file is either left as it was or fully replaced
+	 * 
+	 * @param path The path to the file to save to
+	 * @param t The data to save
+	 * @param sync If the data (and the directory once moved) should be forced to the storage device before returning
+	 * 
+	 * @apiNote If the file system cannot move atomically the file is replaced with a regular move
+	 * <br>
+	 * If the file is a symbolic link the file it links to is replaced, and the permissions, owner and group of the file are given to its replacement where the file system allows, other attributes and hard links to the file are not kept
+	 * 
+	 * @return If the data was writ to the file
+	 */
+	public boolean writeToFileAtomically(@NotNull final Path path, @NotNull final T t, final boolean sync) {
+		final StreamWriteAction content = (stream)->this.writeTo(stream, t);
+		return this.writeIfChanged(path, content, (target)->this.writeAtomically(target, content, sync));
+	}
+	/**
+	 * Streams a document into the specified file through a {@link #openSink(Writer) sink}, without building a {@link Primitive} or T first
+	 * 
+	 * @param path The path to the file to save to
+	 * @param document Writes the document to the sink, this is called twice whilst {@link #setSkipUnchangedWrites(boolean, boolean) unchanged writes are skipped} so must write the same document each time
+	 * 
+	 * @apiNote The document is written to a temporary file beside the specified file which is then moved over it, as with {@link #writeToFileAtomically(Path, Object, boolean)}, so a failure part way through leaves the file as it was
+	 * <br>
+	 * Nothing is written if this adapter does not {@link #supportsSinks() support sinks}
+	 * 
+	 * @return If the document was writ to the file
+	 */
+	public boolean streamToFile(@NotNull final Path path, @NotNull final DocumentWriter document) {
+		final StreamWriteAction content = (stream)->this.writeThroughSink(stream, document);
+		return this.writeIfChanged(path, content, (target)->this.writeAtomically(target, content, false));
+	}
+	
+	private void writeThroughSink(@NotNull final OutputStream stream, @NotNull final DocumentWriter document) throws IOException {
+		final IConfigurationSink sink = this.openSink(stream);
+		if (sink == null) throw new UnsupportedOperationException(this.getClass().getName() + " does not support sinks");
+		document.write(sink);
+		sink.flush();
+	}
+	
+	private boolean writeIfChanged(@NotNull final Path path, @NotNull final StreamWriteAction content, @NotNull final FileWriteAction write) {
+		return handle(()->{
+			final Path target = path.toAbsolutePath().normalize();
+			if (!this.skipUnchangedWrites) {
+				write.write(target);
+				this.performedWrites.increment();
+				return target;
+			}
+			final DigestingOutputStream digest = new DigestingOutputStream();
+			content.write(digest); // digested as it is produced rather than held in memory
+			final ContentDigest previous = this.contentDigests.remove(target); // removed so a failed write is never mistaken for the previous content
+			if (previous != null && previous.matches(digest) && Files.exists(target) && (!this.verifyUnchangedOnDisk || previous.matchesFile(target))) {
+				this.contentDigests.put(target, previous);
+				this.skippedWrites.increment();
+				return target;
+			}
+			write.write(target);
+			this.contentDigests.put(target, ContentDigest.of(digest, target));
+			this.performedWrites.increment();
+			return target;
+		}) != null;
+	}
+	
+	private void writeAtomically(@NotNull final Path file, @NotNull final StreamWriteAction content, final boolean sync) throws IOException {
+		final boolean exists = Files.exists(file);
+		final Path path = exists ? file.toRealPath() : file; // so a symbolic link is kept and the file it links to is replaced
+		final Path directory = path.getParent();
+		final Path temporary = Files.createTempFile(directory, path.getFileName().toString() + ".", ".tmp");
+		try {
+			if (exists) copyOwnership(path, temporary);
+			try (final FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				content.write(Channels.newOutputStream(channel)); // not closed as the channel is still needed
+				if (sync) channel.force(true);
+			}
+			try {
+				Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(temporary);
+		}
+		if (sync) {
+			handle(()->{ // so the move itself survives a crash, not every platform can open a directory
+				try (final FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+					channel.force(true);
+				}
+				return directory;
+			});
+		}
+	}
+	
+	/**
+	 * Gives the temporary file the permissions, owner and group of the file it replaces, as temporary files are only readable by their owner
+	 */
+	private static void copyOwnership(@NotNull final Path from, @NotNull final Path to) throws IOException {
+		final PosixFileAttributeView source = Files.getFileAttributeView(from, PosixFileAttributeView.class);
+		final PosixFileAttributeView target = Files.getFileAttributeView(to, PosixFileAttributeView.class);
+		if (source == null || target == null) return; // not a posix file system, so the temporary file inherits from its directory
+		final PosixFileAttributes attributes = source.readAttributes();
+		target.setPermissions(attributes.permissions());
+		handle(()->{ // only a privileged process can give a file away, elsewise it keeps the owner and group of whoever wrote it
+			target.setOwner(attributes.owner());
+			target.setGroup(attributes.group());
+			return to;
+		});
+	}
+	
+	/**
+	 * Reads a document in the same format as {@link #convertFromString(String)} straight into its {@link Primitive} form
+	 * 
+	 * @param reader The reader to read from, this is not closed
+	 * 
+	 * @apiNote The default implementation reads the whole document into a string and forwards to {@link #convertFromString(String)} and {@link #translate(Object)}, adapters should override this to build the {@link Primitive} as the document is parsed
+	 * 
+	 * @return The read data, or null if the document was empty or null
+	 * 
+	 * @throws IOException If the reader fails
+	 */
+	public @Nullable Primitive readFrom(@NotNull final Reader reader) throws IOException {
+		final StringWriter writer = new StringWriter();
+		reader.transferTo(writer);
+		return this.translate(this.convertFromString(writer.toString()));
+	}
+	/**
+	 * Reads a UTF-8 document straight into its {@link Primitive} form
+	 * 
+	 * @param stream The stream to read from, this is not closed
+	 * 
+	 * @apiNote Forwards to {@link #readFrom(Reader)}, this is what files are read with so adapters for binary formats should override it
+	 * 
+	 * @return The read data, or null if the document was empty or null
+	 * 
+	 * @throws IOException If the stream fails
+	 */
+	public @Nullable Primitive readFrom(@NotNull final InputStream stream) throws IOException {
+		return this.readFrom(new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8)));
+	}
+	/**
+	 * Reads a UTF-8 document from the buffer straight into its {@link Primitive} form
+	 * 
+	 * @param buffer The buffer to read from, this is not moved
+	 * 
+	 * @apiNote The buffer is decoded as it is read by {@link #readFrom(Reader)}, this is what large files are read with once mapped so adapters for binary formats should override it
+	 * 
+	 * @return The read data, or null if the document was empty or null
+	 * 
+	 * @throws IOException If the document could not be read
+	 */
+	public @Nullable Primitive readFrom(@NotNull final ByteBuffer buffer) throws IOException {
+		return this.readFrom(new ByteBufferReader(buffer));
+	}
+	/**
+	 * Reads a document in the same format as {@link #readFrom(Reader)} straight into the sink, so it can be written in another format without building a {@link Primitive} or T
+	 * 
+	 * @param reader The reader to read from, this is not closed
+	 * @param sink The sink to write the document to, this is not flushed
+	 * 
+	 * @apiNote The default implementation reads the whole document with {@link #readFrom(Reader)} and writes it with {@link IConfigurationSink#value(Primitive)}, adapters with a streaming parser should override this so documents are passed on as they are parsed alongside their comments
+	 * 
+	 * @throws IOException If the reader or sink fails
+	 */
+	public void readTo(@NotNull final Reader reader, @NotNull final IConfigurationSink sink) throws IOException {
+		writePrimitive(this.readFrom(reader), sink);
+	}
+	/**
+	 * Reads a UTF-8 document straight into the sink
+	 * 
+	 * @param stream The stream to read from, this is not closed
+	 * @param sink The sink to write the document to, this is not flushed
+	 * 
+	 * @apiNote Forwards to {@link #readTo(Reader, IConfigurationSink)}, this is what files are converted with so adapters for binary formats should override it
+	 * 
+	 * @throws IOException If the stream or sink fails
+	 */
+	public void readTo(@NotNull final InputStream stream, @NotNull final IConfigurationSink sink) throws IOException {
+		this.readTo(new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8)), sink);
+	}
+	/**
+	 * Writes a read document to a sink, for adapters that cannot read straight into one
+	 */
+	protected static void writePrimitive(@Nullable final Primitive primitive, @NotNull final IConfigurationSink sink) throws IOException {
+		if (primitive == null) {
+			sink.nullValue();
+		} else {
+			sink.value(primitive);
+		}
+	}
+	/**
+	 * Reads the specified file
+	 * 
+	 * @param path The path to the file to read
+	 * 
+	 * @apiNote Forwards to {@link #readFromFile(File)}
+	 * 
+	 * @return The read data, or null if it could not be read
+	 */
+	public @Nullable Primitive readFromFile(@NotNull final String path) {
+		return this.readFromFile(new File(path));
+	}
+	/**
+	 * Reads the specified file
+	 * 
+	 * @param file The file to read
+	 * 
+	 * @apiNote Forwards to {@link #readFromFile(Path)}
+	 * 
+	 * @return The read data, or null if it could not be read
+	 */
+	public @Nullable Primitive readFromFile(@NotNull final File file) {
+		return this.readFromFile(file.toPath().toAbsolutePath());
+	}
+	/**
+	 * Reads the specified file
+	 * 
+	 * @param path The path to the file to read
+	 * 
+	 * @apiNote Large files are mapped into memory, unless {@link #setMemoryMapping(boolean) disabled}, and read with {@link #readFrom(ByteBuffer)}, smaller files are streamed through {@link #readFrom(InputStream)}, so neither are copied onto the heap as a whole
+	 * <br>
+	 * If a {@link #setSnapshotCache(SnapshotCache) snapshot cache} has an up to date snapshot of the file it is read from that instead
+	 * 
+	 * @return The read data, or null if it could not be read
+	 */
+	public @Nullable Primitive readFromFile(@NotNull final Path path) {
+		return handle(()->{
+			final Path target = path.toAbsolutePath().normalize();
+			final SnapshotCache snapshotCache = this.snapshotCache;
+			if (snapshotCache != null) return snapshotCache.read(this, target);
+			if (this.skipUnchangedWrites) return this.parse(target).first(); // record what was read so writing it back unchanged can be skipped
+			try (final FileChannel channel = FileChannel.open(target, StandardOpenOption.READ)) {
+				if (!this.shouldMap(channel)) return this.readFrom(Channels.newInputStream(channel));
+				return this.readFrom(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+			}
+		});
+	}
+	/**
+	 * @return If mapping is enabled and the file is large enough to be worth mapping, and small enough to be mapped as one buffer
+	 */
+	private boolean shouldMap(@NotNull final FileChannel channel) throws IOException {
+		if (!this.memoryMapping) return false;
+		final long size = channel.size();
+		return size >= MEMORY_MAP_THRESHOLD && size <= Integer.MAX_VALUE;
+	}
+	/**
+	 * Parses the file whilst digesting it, the digest is recorded if unchanged writes are being skipped
+	 */
+	@NotNull Tuple<Primitive, ContentDigest> parse(@NotNull final Path target) throws IOException {
+		final Primitive primitive;
+		final ContentDigest digest;
+		try (final FileChannel channel = FileChannel.open(target, StandardOpenOption.READ)) {
+			if (this.shouldMap(channel)) {
+				final ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+				digest = ContentDigest.of(buffer, target);
+				primitive = this.readFrom(buffer);
+			} else {
+				final DigestingInputStream stream = new DigestingInputStream(Channels.newInputStream(channel));
+				primitive = this.readFrom(stream);
+				stream.transferTo(OutputStream.nullOutputStream()); // digest anything the parser did not need
+				digest = ContentDigest.of(stream, target);
+			}
+		}
+		this.recordDigest(target, digest);
+		return new Tuple<Primitive, ContentDigest>(primitive, digest);
+	}
+	/**
+	 * Records the digest of a file that was read, if unchanged writes are being skipped
+	 */
+	void recordDigest(@NotNull final Path target, @NotNull final ContentDigest digest) {
+		if (this.skipUnchangedWrites) this.contentDigests.put(target, digest);
+	}
+	/**
+	 * Sets if {@link #readFromFile(Path)} maps large files into memory rather than streaming them
+	 * 
+	 * @param memoryMapping If large files should be mapped
+	 * 
+	 * @apiNote A mapping stays open until its buffer is garbage collected, which on Windows stops the file from being replaced or deleted until then, so this is disabled by default on Windows
+	 */
+	public void setMemoryMapping(final boolean memoryMapping) {
+		this.memoryMapping = memoryMapping;
+	}
+	/**
+	 * Sets the cache used by {@link #readFromFile(Path)} to load files from a snapshot of their parsed form whilst they are unchanged
+	 * 
+	 * @param snapshotCache The cache to use, or null to always parse files
+	 */
+	public void setSnapshotCache(@Nullable final SnapshotCache snapshotCache) {
+		this.snapshotCache = snapshotCache;
+	}
+	/**
+	 * Sets if writes to a file should be skipped when their content is identical to what was last written to or read from it
+	 * 
+	 * @param skipUnchangedWrites If unchanged writes should be skipped
+	 * @param verifyOnDisk If the size and modification time of the file must also be as they were when last written or read, so that changes made by anything else are overwritten
+	 * 
+	 * @apiNote Whilst enabled every write is serialized twice, once to digest it and once to write it, so that the content is never held in memory as a whole
+	 */
+	public void setSkipUnchangedWrites(final boolean skipUnchangedWrites, final boolean verifyOnDisk) {
+		this.skipUnchangedWrites = skipUnchangedWrites;
+		this.verifyUnchangedOnDisk = verifyOnDisk;
+		if (!skipUnchangedWrites) this.contentDigests.clear();
+	}
+	/**
+	 * @return The number of writes skipped as they would not have changed the file
+	 */
+	public long getSkippedWrites() {
+		return this.skippedWrites.sum();
+	}
+	/**
+	 * @return The number of writes that were made to files
+	 */
+	public long getPerformedWrites() {
+		return this.performedWrites.sum();
+	}
+	
+	/**
+	 * Sets the size at which arrays and maps are translated in parallel by {@link #translate(Primitive)} and {@link #translate(Object)}
+	 * 
+	 * @param parallelThreshold The number of elements an array or map needs for its elements to be translated on the common {@link ForkJoinPool}, zero or below to always translate on the calling thread
+	 * 
+	 * @apiNote Only adapters that translate through {@link #translateAll(int, IntFunction, IntFunction)} are affected, the order of elements is kept either way
+	 */
+	public void setParallelThreshold(final int parallelThreshold) {
+		this.parallelThreshold = parallelThreshold;
+	}
+	/**
+	 * @return The number of elements an array or map needs to be translated in parallel, zero or below if it never is
+	 */
+	public int getParallelThreshold() {
+		return this.parallelThreshold;
+	}
+	/**
+	 * Translates the elements of an array or map, splitting them between fork join tasks if there are at least {@link #getParallelThreshold()} of them
+	 * 
+	 * @param size The number of elements
+	 * @param arrayFactory Creates the array to translate the elements into, such as {@code Primitive[]::new}
+	 * @param translator Translates the element at an index, this must be safe to call from multiple threads at once
+	 * 
+	 * @return The translated elements, in the same order as their indexes
+	 */
+	protected final <R> @NotNull R[] translateAll(final int size, @NotNull final IntFunction<R[]> arrayFactory, @NotNull final IntFunction<? extends R> translator) {
+		final R[] results = arrayFactory.apply(size);
+		final int threshold = this.parallelThreshold;
+		if (threshold <= 0 || size < threshold) {
+			for (int i = 0; i < size; i++) {
+				results[i] = translator.apply(i);
+			}
+			return results;
+		}
+		final int leafSize = Math.max(1, size / (ForkJoinPool.getCommonPoolParallelism() * 4)); // enough tasks to balance uneven elements
+		new TranslateTask<R>(translator, results, 0, size, leafSize).invoke();
+		return results;
 	}
 	
 	public abstract @NotNull String getRecommendedFileExtension();
@@ -89,4 +560,63 @@ public abstract class AbstractAdapter<T> implements IRegisterable<Void> {
 		AdapterController.getAdapterRegistry().register(this.getAdaptiveClass(), this);
 	}
 	
+	/**
+	 * Translates a range of elements, each writing only to its own indexes so the order is kept
+	 */
+	private static final class TranslateTask<R> extends RecursiveAction {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final @NotNull IntFunction<? extends R> translator;
+		private final @NotNull R[] results;
+		private final int from;
+		private final int to;
+		private final int leafSize;
+		
+		private TranslateTask(@NotNull final IntFunction<? extends R> translator, @NotNull final R[] results, final int from, final int to, final int leafSize) {
+			this.translator = translator;
+			this.results = results;
+			this.from = from;
+			this.to = to;
+			this.leafSize = leafSize;
+		}
+		
+		@Override
+		protected void compute() {
+			if (this.to - this.from <= this.leafSize) {
+				for (int i = this.from; i < this.to; i++) {
+					this.results[i] = this.translator.apply(i);
+				}
+				return;
+			}
+			final int middle = (this.from + this.to) >>> 1;
+			invokeAll(new TranslateTask<R>(this.translator, this.results, this.from, middle, this.leafSize), new TranslateTask<R>(this.translator, this.results, middle, this.to, this.leafSize));
+		}
+		
+	}
+	
+	/**
+	 * Writes a document straight into a sink, see {@link AbstractAdapter#streamToFile(Path, DocumentWriter)}
+	 */
+	@FunctionalInterface
+	public static interface DocumentWriter {
+		
+		public void write(@NotNull final IConfigurationSink sink) throws IOException;
+		
+	}
+	
+	@FunctionalInterface
+	private static interface FileWriteAction {
+		
+		public void write(@NotNull final Path path) throws IOException;
+		
+	}
+	
+	@FunctionalInterface
+	private static interface StreamWriteAction {
+		
+		public void write(@NotNull final OutputStream stream) throws IOException;
+		
+	}
+	
 }
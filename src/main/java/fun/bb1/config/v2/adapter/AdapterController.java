@@ -1,27 +1,106 @@
 package fun.bb1.config.v2.adapter;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import fun.bb1.config.v2.registry.SnapshotRegistry;
 import fun.bb1.objects.Primitive;
 import fun.bb1.registry.IRegistry;
-import fun.bb1.registry.SimpleRegistry;
 
 public final class AdapterController {
 	
-	private static final @NotNull IRegistry<Class<?>, AbstractAdapter<?>> ADAPTER_REGISTRY = new SimpleRegistry<Class<?>, AbstractAdapter<?>>();
+	private static final @NotNull SnapshotRegistry<AbstractAdapter<?>> ADAPTER_REGISTRY = new SnapshotRegistry<AbstractAdapter<?>>();
 	
 	public static final @NotNull IRegistry<Class<?>, AbstractAdapter<?>> getAdapterRegistry() {
 		return ADAPTER_REGISTRY;
 	}
 	
+	/**
+	 * @param type The type to get the adapter of
+	 * 
+	 * @apiNote If no adapter is registered for the type itself the adapter of its closest superclass or interface is used, such as for subclasses of {@code JsonObject}
+	 * 
+	 * @return The adapter for the provided type, or null if there is none
+	 */
 	@SuppressWarnings("unchecked")
 	public static final <T> @Nullable AbstractAdapter<T> getAdapterFor(@NotNull final Class<T> type) {
-		return (AbstractAdapter<T>) getAdapterRegistry().get(type);
+		return (AbstractAdapter<T>) ADAPTER_REGISTRY.resolve(type);
 	}
 	
 	public static final <T> @Nullable T translate(@NotNull final Class<T> type, @NotNull final Primitive primitive) {
 		return getAdapterFor(type).translate(primitive);
 	}
+	/**
+	 * Converts a document from the format of one adapter into the format of another
+	 * <br>
+	 * If the target adapter supports {@link AbstractAdapter#openSink(Writer) sinks} the document is written as it is read with {@link AbstractAdapter#readTo(Reader, IConfigurationSink)}, so comments are kept where both formats support them, elsewise it is read into a {@link Primitive} and written from that
+	 * 
+	 * @param from The adapter of the format to read
+	 * @param reader The reader to read from, this is not closed
+	 * @param to The adapter of the format to write
+	 * @param writer The writer to write to, this is flushed but not closed
+	 * 
+	 * @return If the document was converted
+	 * 
+	 * @throws IOException If the reader or writer fails
+	 */
+	public static final boolean convert(@NotNull final AbstractAdapter<?> from, @NotNull final Reader reader, @NotNull final AbstractAdapter<?> to, @NotNull final Writer writer) throws IOException {
+		final IConfigurationSink sink = to.openSink(writer);
+		if (sink != null) {
+			from.readTo(reader, sink);
+			sink.flush();
+			writer.flush();
+			return true;
+		}
+		final Primitive primitive = from.readFrom(reader);
+		if (primitive == null || !writeWith(to, writer, primitive)) return false;
+		writer.flush();
+		return true;
+	}
+	/**
+	 * Converts a file from the format of one adapter into the format of another
+	 * 
+	 * @param fromType The serialization type of the format to read
+	 * @param source The file to read
+	 * @param toType The serialization type of the format to write
+	 * @param target The file to write, this may not be the source
+	 * 
+	 * @apiNote Files are streamed with {@link AbstractAdapter#readTo(InputStream, IConfigurationSink)} where the target adapter supports {@link AbstractAdapter#openSink(Writer) sinks}, see {@link #convert(AbstractAdapter, Reader, AbstractAdapter, Writer)}
+	 * 
+	 * @return If the file was converted
+	 */
+	public static final boolean convert(@NotNull final Class<?> fromType, @NotNull final Path source, @NotNull final Class<?> toType, @NotNull final Path target) {
+		final AbstractAdapter<?> from = getAdapterFor(fromType);
+		final AbstractAdapter<?> to = getAdapterFor(toType);
+		if (from == null || to == null) return false;
+		if (to.supportsSinks()) {
+			return to.streamToFile(target, (sink)->{
+				try (final InputStream stream = Files.newInputStream(source)) {
+					from.readTo(stream, sink);
+				}
+			});
+		}
+		final Primitive primitive = from.readFromFile(source);
+		return primitive != null && writeFileWith(to, target, primitive);
+	}
+	
+	private static final <T> boolean writeWith(@NotNull final AbstractAdapter<T> adapter, @NotNull final Writer writer, @NotNull final Primitive primitive) throws IOException {
+		final T translated = adapter.translate(primitive);
+		if (translated == null) return false;
+		adapter.writeTo(writer, translated);
+		return true;
+	}
+	
+	private static final <T> boolean writeFileWith(@NotNull final AbstractAdapter<T> adapter, @NotNull final Path path, @NotNull final Primitive primitive) {
+		final T translated = adapter.translate(primitive);
+		return translated != null && adapter.writeToFile(path, translated);
+	}
 		
 }
@@ -0,0 +1,57 @@
+package fun.bb1.config.v2.adapter;
+
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+import org.jetbrains.annotations.NotNull;
+/**
+ * Decodes UTF-8 from a {@link ByteBuffer} as it is read, so a mapped file is never copied onto the heap as a whole
+ * <br>
+ * Malformed input is replaced, as it is by {@link java.io.InputStreamReader}
+ */
+final class ByteBufferReader extends Reader {
+
+	private final @NotNull ByteBuffer buffer;
+	private final @NotNull CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+	private final @NotNull CharBuffer chars = CharBuffer.allocate(8192).flip();
+	private boolean decoded = false;
+	/**
+	 * @param buffer The buffer to decode, it is not moved
+	 */
+	ByteBufferReader(@NotNull final ByteBuffer buffer) {
+		this.buffer = buffer.duplicate();
+	}
+
+	@Override
+	public int read(@NotNull final char[] cbuf, final int off, final int len) {
+		Objects.checkFromIndexSize(off, len, cbuf.length);
+		if (len == 0) return 0;
+		if (!this.chars.hasRemaining() && !this.fill()) return -1;
+		final int read = Math.min(len, this.chars.remaining());
+		this.chars.get(cbuf, off, read);
+		return read;
+	}
+	/**
+	 * @return If any characters were decoded
+	 */
+	private boolean fill() {
+		this.chars.clear();
+		while (this.chars.position() == 0 && !this.decoded) {
+			if (this.decoder.decode(this.buffer, this.chars, true).isUnderflow()) { // the whole buffer has been decoded
+				this.decoder.flush(this.chars);
+				this.decoded = true;
+			}
+		}
+		this.chars.flip();
+		return this.chars.hasRemaining();
+	}
+
+	@Override
+	public void close() { }
+
+}
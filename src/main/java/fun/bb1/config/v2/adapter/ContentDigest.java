@@ -0,0 +1,177 @@
+package fun.bb1.config.v2.adapter;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+/**
+ * The SHA-256 digest and size of the content last written to or read from a file, alongside when the file was last modified
+ * 
+ * @apiNote Used by {@link AbstractAdapter} to skip writes that would not change a file, and by {@link SnapshotCache} to tell if a file has changed since its snapshot was made
+ */
+final class ContentDigest {
+	
+	private final @NotNull byte[] digest;
+	private final long size;
+	private final long lastModified;
+	
+	private ContentDigest(@NotNull final byte[] digest, final long size, final long lastModified) {
+		this.digest = digest;
+		this.size = size;
+		this.lastModified = lastModified;
+	}
+	/**
+	 * @return If the content has the same digest as this
+	 */
+	boolean matches(@NotNull final DigestingOutputStream content) {
+		return this.size == content.size && MessageDigest.isEqual(this.digest, content.digest());
+	}
+	/**
+	 * @return If the content has the same digest as this
+	 */
+	boolean matches(@NotNull final ContentDigest content) {
+		return this.size == content.size && MessageDigest.isEqual(this.digest, content.digest);
+	}
+	/**
+	 * @return If the file still has the size and modification time recorded when this was created
+	 */
+	boolean matchesFile(@NotNull final Path path) throws IOException {
+		return Files.size(path) == this.size && Files.getLastModifiedTime(path).toMillis() == this.lastModified;
+	}
+	/**
+	 * @return The digest of the written content, recording the current modification time of the file
+	 */
+	static @NotNull ContentDigest of(@NotNull final DigestingOutputStream content, @NotNull final Path path) throws IOException {
+		return new ContentDigest(content.digest(), content.size, Files.getLastModifiedTime(path).toMillis());
+	}
+	/**
+	 * @return The digest of the read content, recording the current modification time of the file
+	 */
+	static @NotNull ContentDigest of(@NotNull final DigestingInputStream content, @NotNull final Path path) throws IOException {
+		return new ContentDigest(content.digest.digest(), content.size, Files.getLastModifiedTime(path).toMillis());
+	}
+	
+	/**
+	 * @return The digest of the buffer, recording the current modification time of the file it was read from
+	 */
+	static @NotNull ContentDigest of(@NotNull final ByteBuffer content, @NotNull final Path path) throws IOException {
+		final MessageDigest digest = newDigest();
+		digest.update(content.duplicate());
+		return new ContentDigest(digest.digest(), content.remaining(), Files.getLastModifiedTime(path).toMillis());
+	}
+	/**
+	 * @return The digest of the current content of the file
+	 */
+	static @NotNull ContentDigest of(@NotNull final Path path) throws IOException {
+		try (final DigestingInputStream stream = new DigestingInputStream(Files.newInputStream(path))) {
+			stream.transferTo(OutputStream.nullOutputStream());
+			return of(stream, path);
+		}
+	}
+	
+	void write(@NotNull final DataOutput output) throws IOException {
+		output.writeLong(this.size);
+		output.writeLong(this.lastModified);
+		output.writeShort(this.digest.length);
+		output.write(this.digest);
+	}
+	
+	static @NotNull ContentDigest read(@NotNull final DataInput input) throws IOException {
+		final long size = input.readLong();
+		final long lastModified = input.readLong();
+		final byte[] digest = new byte[input.readUnsignedShort()];
+		input.readFully(digest);
+		return new ContentDigest(digest, size, lastModified);
+	}
+	
+	private static @NotNull MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is required to be supported", e);
+		}
+	}
+	/**
+	 * Digests everything written to it, without storing it
+	 */
+	static final class DigestingOutputStream extends OutputStream {
+		
+		private final @NotNull MessageDigest digest = newDigest();
+		private long size = 0;
+		private @Nullable byte[] result;
+		
+		@Override
+		public void write(final int b) {
+			this.digest.update((byte) b);
+			this.size++;
+		}
+		
+		@Override
+		public void write(@NotNull final byte[] b, final int off, final int len) {
+			this.digest.update(b, off, len);
+			this.size += len;
+		}
+		
+		private @NotNull byte[] digest() {
+			if (this.result == null) this.result = this.digest.digest();
+			return Arrays.copyOf(this.result, this.result.length);
+		}
+		
+	}
+	/**
+	 * Digests everything read through it
+	 */
+	static final class DigestingInputStream extends FilterInputStream {
+		
+		private final @NotNull MessageDigest digest = newDigest();
+		private long size = 0;
+		
+		DigestingInputStream(@NotNull final InputStream in) {
+			super(in);
+		}
+		
+		@Override
+		public int read() throws IOException {
+			final int b = super.read();
+			if (b != -1) {
+				this.digest.update((byte) b);
+				this.size++;
+			}
+			return b;
+		}
+		
+		@Override
+		public int read(@NotNull final byte[] b, final int off, final int len) throws IOException {
+			final int read = super.read(b, off, len);
+			if (read > 0) {
+				this.digest.update(b, off, read);
+				this.size += read;
+			}
+			return read;
+		}
+		
+		@Override
+		public long skip(final long n) throws IOException {
+			if (n <= 0) return 0;
+			return Math.max(0, this.read(new byte[(int) Math.min(n, 8192)])); // skipped bytes must still be digested
+		}
+		
+		@Override
+		public boolean markSupported() {
+			return false;
+		}
+		
+	}
+	
+}
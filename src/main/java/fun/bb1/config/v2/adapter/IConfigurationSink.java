@@ -0,0 +1,109 @@
+package fun.bb1.config.v2.adapter;
+
+import java.io.IOException;
+import java.util.Map.Entry;
+
+import org.jetbrains.annotations.NotNull;
+
+import fun.bb1.objects.Primitive;
+
+/**
+ * 
+ * Copyright 2022 BradBot_1
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ * http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ * Receives a document value by value and writes it out in the format of an adapter as it goes, without building a {@link Primitive} or adapter tree first
+ * <br>
+ * Obtained from {@link AbstractAdapter#openSink(java.io.Writer)}
+ * 
+ * @apiNote {@link #key(String)} and {@link #comment(String)} are held until the next value, so a key that is never given a value (such as when a serializer fails) is not written
+ */
+public interface IConfigurationSink {
+	
+	public void beginObject() throws IOException;
+	
+	public void endObject() throws IOException;
+	
+	public void beginArray() throws IOException;
+	
+	public void endArray() throws IOException;
+	/**
+	 * Sets the key of the next value, only valid directly within an object
+	 * 
+	 * @param key The key to write the next value under
+	 */
+	public void key(@NotNull final String key) throws IOException;
+	/**
+	 * Sets the comment of the next value
+	 * 
+	 * @param comment The comment to display alongside the next value
+	 * 
+	 * @apiNote Adapters that cannot represent comments on values within arrays may ignore them
+	 */
+	public void comment(@NotNull final String comment) throws IOException;
+	
+	public void value(@NotNull final String value) throws IOException;
+	
+	public void value(@NotNull final Number value) throws IOException;
+	
+	public void value(final long value) throws IOException;
+	
+	public void value(final double value) throws IOException;
+	
+	public void value(final boolean value) throws IOException;
+	
+	public default void value(final char value) throws IOException {
+		this.value(String.valueOf(value));
+	}
+	
+	public void nullValue() throws IOException;
+	/**
+	 * Writes a whole {@link Primitive}, used when a serializer cannot write to the sink directly
+	 * 
+	 * @param primitive The primitive to write
+	 */
+	public default void value(@NotNull final Primitive primitive) throws IOException {
+		if (primitive.isString() || primitive.isCharacter()) {
+			this.value(primitive.getAsString());
+		} else if (primitive.isNumber()) {
+			this.value(primitive.getAsNumber());
+		} else if (primitive.isBoolean()) {
+			this.value(primitive.getAsBoolean());
+		} else if (primitive.isArray()) {
+			this.beginArray();
+			for (final Primitive element : primitive.getAsArray()) {
+				if (element == null) {
+					this.nullValue();
+				} else {
+					this.value(element);
+				}
+			}
+			this.endArray();
+		} else {
+			this.beginObject();
+			for (final Entry<String, Primitive> entry : primitive.getAsStringBasedMap().entrySet()) {
+				if (entry.getValue() == null) continue;
+				this.key(entry.getKey());
+				this.value(entry.getValue());
+			}
+			this.endObject();
+		}
+	}
+	/**
+	 * Flushes everything written so far to the underlying writer
+	 */
+	public void flush() throws IOException;
+	
+}
@@ -0,0 +1,179 @@
+package fun.bb1.config.v2.adapter;
+
+import static fun.bb1.exceptions.handler.ExceptionHandler.handle;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import fun.bb1.objects.Primitive;
+import fun.bb1.objects.Tuple;
+
+/**
+ *
+ * Copyright 2022 BradBot_1
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ * http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ * Caches the parsed form of files as snapshots, so a file that has not changed since it was last read is loaded from its snapshot instead of being parsed
+ * <br>
+ * A snapshot records the path, size, modification time and SHA-256 digest of the file it was made from, it is used whilst the size and modification time still match, if only the modification time differs the file is digested and the snapshot is still used if the digest matches
+ * <br>
+ * Snapshots are written with the snapshot adapter, which should be one for a binary format that is quicker to read than the files being cached
+ *
+ * @apiNote Set on an adapter with {@link AbstractAdapter#setSnapshotCache(SnapshotCache)}, missing, stale or corrupt snapshots are replaced the next time their file is read
+ *
+ * @author BradBot_1
+ */
+public final class SnapshotCache {
+
+	private static final int MAGIC = 0x53435350; // SCSP
+
+	private final @NotNull AbstractAdapter<?> snapshotAdapter;
+	private final @Nullable Path directory;
+	private final boolean verifyContent;
+	private final @NotNull LongAdder hits = new LongAdder();
+	private final @NotNull LongAdder misses = new LongAdder();
+	/**
+	 * @param snapshotAdapter The adapter to write and read snapshots with
+	 * @param directory The directory to store snapshots in, if null each snapshot is stored as a hidden file beside the file it was made from
+	 * @param verifyContent If files should always be digested before their snapshot is used, so files that were changed without changing their size or modification time are noticed
+	 */
+	public SnapshotCache(@NotNull final AbstractAdapter<?> snapshotAdapter, @Nullable final Path directory, final boolean verifyContent) {
+		this.snapshotAdapter = snapshotAdapter;
+		this.directory = directory != null ? directory.toAbsolutePath().normalize() : null;
+		this.verifyContent = verifyContent;
+	}
+	/**
+	 * @param snapshotAdapter The adapter to write and read snapshots with
+	 *
+	 * @apiNote Snapshots are stored beside the files they were made from
+	 */
+	public SnapshotCache(@NotNull final AbstractAdapter<?> snapshotAdapter) {
+		this(snapshotAdapter, null, false);
+	}
+	/**
+	 * Reads the file from its snapshot if it is up to date, elsewise parses it with the adapter and replaces the snapshot
+	 *
+	 * @param adapter The adapter to parse the file with
+	 * @param path The absolute path to the file
+	 *
+	 * @return The read data, or null if the document was empty or null
+	 *
+	 * @throws IOException If the file could not be read
+	 */
+	@Nullable Primitive read(@NotNull final AbstractAdapter<?> adapter, @NotNull final Path path) throws IOException {
+		final Path snapshot = this.getSnapshotPath(path);
+		final Tuple<Primitive, ContentDigest> cached = Files.exists(snapshot) ? handle(()->this.readSnapshot(path, snapshot)) : null;
+		if (cached != null) {
+			this.hits.increment();
+			adapter.recordDigest(path, cached.second());
+			return cached.first();
+		}
+		this.misses.increment();
+		final Tuple<Primitive, ContentDigest> parsed = adapter.parse(path);
+		if (parsed.first() != null) {
+			handle(()->{ // the file was still read even if the snapshot cannot be written
+				this.writeSnapshot(path, snapshot, parsed.second(), parsed.first());
+				return snapshot;
+			});
+		}
+		return parsed.first();
+	}
+	/**
+	 * @return The snapshot, or null if it is not of the file or the file has changed since it was made
+	 */
+	private @Nullable Tuple<Primitive, ContentDigest> readSnapshot(@NotNull final Path path, @NotNull final Path snapshot) throws IOException {
+		final ContentDigest recorded;
+		final ContentDigest current;
+		final Primitive primitive;
+		try (final DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+			if (input.readInt() != MAGIC || !input.readUTF().equals(path.toString())) return null;
+			recorded = ContentDigest.read(input);
+			current = !this.verifyContent && recorded.matchesFile(path) ? recorded : ContentDigest.of(path);
+			if (current != recorded && !current.matches(recorded)) return null;
+			primitive = this.snapshotAdapter.readFrom(input);
+		}
+		if (primitive == null) return null;
+		if (current != recorded && !recorded.matchesFile(path)) { // only the modification time changed, so record the new one to avoid digesting the file next time
+			this.writeSnapshot(path, snapshot, current, primitive);
+		}
+		return new Tuple<Primitive, ContentDigest>(primitive, current);
+	}
+
+	private void writeSnapshot(@NotNull final Path path, @NotNull final Path snapshot, @NotNull final ContentDigest digest, @NotNull final Primitive primitive) throws IOException {
+		final Path directory = snapshot.getParent();
+		Files.createDirectories(directory);
+		final Path temporary = Files.createTempFile(directory, snapshot.getFileName().toString() + ".", ".tmp");
+		try {
+			try (final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+				output.writeInt(MAGIC);
+				output.writeUTF(path.toString());
+				digest.write(output);
+				writeWith(this.snapshotAdapter, output, primitive);
+			}
+			try {
+				Files.move(temporary, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(temporary);
+		}
+	}
+
+	private static <S> void writeWith(@NotNull final AbstractAdapter<S> adapter, @NotNull final OutputStream stream, @NotNull final Primitive primitive) throws IOException {
+		final S translated = adapter.translate(primitive);
+		if (translated == null) throw new IOException("The snapshot adapter could not translate the file");
+		adapter.writeTo(stream, translated);
+	}
+
+	private @NotNull Path getSnapshotPath(@NotNull final Path path) {
+		final String name = path.getFileName().toString();
+		if (this.directory == null) return path.resolveSibling("." + name + ".snapshot");
+		return this.directory.resolve(name + "." + Integer.toHexString(path.toString().hashCode()) + ".snapshot"); // collisions are told apart by the path recorded in the snapshot
+	}
+	/**
+	 * Deletes the snapshot of the file, if it has one
+	 *
+	 * @param path The path to the file
+	 */
+	public void invalidate(@NotNull final Path path) {
+		handle(()->Files.deleteIfExists(this.getSnapshotPath(path.toAbsolutePath().normalize())));
+	}
+	/**
+	 * @return The number of files read from their snapshot
+	 */
+	public long getHits() {
+		return this.hits.sum();
+	}
+	/**
+	 * @return The number of files that had to be parsed
+	 */
+	public long getMisses() {
+		return this.misses.sum();
+	}
+
+}
@@ -0,0 +1,240 @@
+package fun.bb1.config.v2.adapter;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * 
+ * Copyright 2022 BradBot_1
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ * http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ * Saves files in the background, coalescing saves to the same file
+ * <br>
+ * A file is written once it has gone the delay without being saved again, each save replacing the data to be written, so a burst of saves is written once after the burst ends
+ * <br>
+ * A file that keeps being saved is still written once the max delay has passed since the first save that has not been written, so it is never put off forever
+ * <br>
+ * Files are written with {@link AbstractAdapter#writeToFileAtomically(Path, Object, boolean)}, so a crash mid-write leaves the previous version intact
+ * 
+ * @apiNote {@link #close()} should be called on shutdown, elsewise saves that have not been written yet are lost
+ * 
+ * @author BradBot_1
+ */
+public final class WriteBehindSaver implements AutoCloseable {
+	
+	private final @NotNull ScheduledExecutorService executor;
+	private final boolean ownsExecutor;
+	private final long delay;
+	private final long maxDelay;
+	private final boolean sync;
+	private final @Nullable Logger logger;
+	private final @NotNull Map<Path, PendingSave<?>> pendingSaves = new ConcurrentHashMap<Path, PendingSave<?>>();
+	/**
+	 * Held whilst a file is written, so a file is never written by two threads at once, and removed once no thread holds or waits for it
+	 */
+	private final @NotNull Map<Path, WriteLock> writeLocks = new ConcurrentHashMap<Path, WriteLock>();
+	private volatile boolean closed = false;
+	/**
+	 * Creates a saver with its own background thread, which is stopped by {@link #close()}
+	 * 
+	 * @param delay How long a file must go without being saved before it is written
+	 * @param maxDelay The longest a file is waited on after the first save that has not been written, no less than the delay
+	 * @param unit The unit of the delays
+	 * @param sync If writes should be forced to the storage device
+	 * @param logger An optional {@link Logger}, if null nothing is logged, if not null failed writes are logged
+	 * 
+	 * @throws IllegalArgumentException If the max delay is less than the delay
+	 */
+	public WriteBehindSaver(final long delay, final long maxDelay, @NotNull final TimeUnit unit, final boolean sync, @Nullable final Logger logger) {
+		this(createExecutor(), true, delay, maxDelay, unit, sync, logger);
+	}
+	/**
+	 * Creates a saver that writes on the provided executor, which is not shut down by {@link #close()}
+	 * 
+	 * @param executor The executor to write on
+	 * @param delay How long a file must go without being saved before it is written
+	 * @param maxDelay The longest a file is waited on after the first save that has not been written, no less than the delay
+	 * @param unit The unit of the delays
+	 * @param sync If writes should be forced to the storage device
+	 * @param logger An optional {@link Logger}, if null nothing is logged, if not null failed writes are logged
+	 * 
+	 * @apiNote Every save cancels the write it replaces, so a {@link ScheduledThreadPoolExecutor} should {@link ScheduledThreadPoolExecutor#setRemoveOnCancelPolicy(boolean) remove cancelled tasks}
+	 * 
+	 * @throws IllegalArgumentException If the max delay is less than the delay
+	 */
+	public WriteBehindSaver(@NotNull final ScheduledExecutorService executor, final long delay, final long maxDelay, @NotNull final TimeUnit unit, final boolean sync, @Nullable final Logger logger) {
+		this(executor, false, delay, maxDelay, unit, sync, logger);
+	}
+	
+	private WriteBehindSaver(@NotNull final ScheduledExecutorService executor, final boolean ownsExecutor, final long delay, final long maxDelay, @NotNull final TimeUnit unit, final boolean sync, @Nullable final Logger logger) {
+		if (maxDelay < delay) throw new IllegalArgumentException("The max delay cannot be less than the delay");
+		this.executor = executor;
+		this.ownsExecutor = ownsExecutor;
+		this.delay = unit.toNanos(delay);
+		this.maxDelay = unit.toNanos(maxDelay);
+		this.sync = sync;
+		this.logger = logger;
+	}
+	
+	private static @NotNull ScheduledExecutorService createExecutor() {
+		final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, (runnable)->{
+			final Thread thread = new Thread(runnable, "WriteBehindSaver");
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.setRemoveOnCancelPolicy(true); // writes are cancelled every time they are put off
+		return executor;
+	}
+	/**
+	 * Schedules the data to be written to the file
+	 * 
+	 * @param adapter The adapter to write the data with
+	 * @param path The path to the file to save to
+	 * @param t The data to save
+	 * 
+	 * @throws IllegalStateException If this saver has been closed
+	 */
+	public <T> void save(@NotNull final AbstractAdapter<T> adapter, @NotNull final Path path, @NotNull final T t) {
+		this.saveLazily(adapter, path, ()->t);
+	}
+	/**
+	 * Schedules the data to be written to the file, the data is only produced when the file is written
+	 * 
+	 * @param adapter The adapter to write the data with
+	 * @param path The path to the file to save to
+	 * @param data Produces the data to save, this is called on the thread that writes, if it returns null nothing is written
+	 * 
+	 * @apiNote This allows the serialization itself to be coalesced, such as with {@code ()->configurable.serializeForConfiguration(JsonElement.class, null)}
+	 * 
+	 * @throws IllegalStateException If this saver has been closed
+	 */
+	public <T> void saveLazily(@NotNull final AbstractAdapter<T> adapter, @NotNull final Path path, @NotNull final Supplier<T> data) {
+		if (this.closed) throw new IllegalStateException("This saver has been closed");
+		final Path target = path.toAbsolutePath().normalize();
+		final long now = System.nanoTime();
+		this.pendingSaves.compute(target, (key, pendingSave)->{
+			if (pendingSave != null) {
+				pendingSave.replace(adapter, data); // written by whichever write runs next
+				final ScheduledFuture<?> future = pendingSave.future;
+				if (future != null && future.cancel(false)) pendingSave.future = this.schedule(target, pendingSave.deadline - now); // put off, as the file was saved again
+				return pendingSave;
+			}
+			final PendingSave<T> newSave = new PendingSave<T>(adapter, data, now + this.maxDelay);
+			newSave.future = this.schedule(target, this.maxDelay);
+			return newSave;
+		});
+	}
+	/**
+	 * @param remaining How long is left until the file must be written
+	 */
+	private @NotNull ScheduledFuture<?> schedule(@NotNull final Path path, final long remaining) {
+		return this.executor.schedule(()->this.write(path), Math.max(0, Math.min(this.delay, remaining)), TimeUnit.NANOSECONDS);
+	}
+	/**
+	 * @return If any saves have not been written yet
+	 */
+	public boolean hasPendingSaves() {
+		return !this.pendingSaves.isEmpty();
+	}
+	/**
+	 * Writes every save that has not been written yet on the calling thread, waiting for any being written in the background
+	 */
+	public void flush() {
+		for (final Path path : this.pendingSaves.keySet()) {
+			this.write(path);
+		}
+	}
+	/**
+	 * Stops accepting saves and writes every save that has not been written yet
+	 */
+	@Override
+	public void close() {
+		this.closed = true;
+		this.flush();
+		if (this.ownsExecutor) this.executor.shutdown();
+	}
+	
+	private void write(@NotNull final Path path) {
+		final WriteLock lock = this.writeLocks.compute(path, (key, existing)->{
+			final WriteLock held = existing != null ? existing : new WriteLock();
+			held.holders++;
+			return held;
+		});
+		try {
+			synchronized (lock) {
+				final PendingSave<?> pendingSave = this.pendingSaves.remove(path); // saves after this point schedule a new write
+				if (pendingSave == null) return; // already written
+				final ScheduledFuture<?> future = pendingSave.future;
+				if (future != null) future.cancel(false);
+				try {
+					if (!pendingSave.write(path, this.sync) && this.logger != null) this.logger.log(Level.WARNING, "Failed to write \"" + path + "\"!");
+				} catch (final RuntimeException e) {
+					if (this.logger != null) this.logger.log(Level.WARNING, "Failed to write \"" + path + "\"!", e);
+				}
+			}
+		} finally {
+			this.writeLocks.computeIfPresent(path, (key, held)->--held.holders == 0 ? null : held); // so a lock is only kept for files being written
+		}
+	}
+	/**
+	 * The lock of a single file, alongside how many threads hold or wait for it, which is only changed whilst the lock is being computed in {@link #writeLocks}
+	 */
+	private static final class WriteLock {
+		
+		private int holders;
+		
+	}
+	
+	private static final class PendingSave<T> {
+		
+		private @NotNull AbstractAdapter<T> adapter;
+		private @NotNull Supplier<T> data;
+		private volatile @Nullable ScheduledFuture<?> future;
+		/**
+		 * The {@link System#nanoTime()} by which this must be written, however often it is put off
+		 */
+		private final long deadline;
+		
+		private PendingSave(@NotNull final AbstractAdapter<T> adapter, @NotNull final Supplier<T> data, final long deadline) {
+			this.adapter = adapter;
+			this.data = data;
+			this.deadline = deadline;
+		}
+		
+		@SuppressWarnings("unchecked")
+		private synchronized void replace(@NotNull final AbstractAdapter<?> adapter, @NotNull final Supplier<?> data) {
+			this.adapter = (AbstractAdapter<T>) adapter;
+			this.data = (Supplier<T>) data;
+		}
+		
+		private synchronized boolean write(@NotNull final Path path, final boolean sync) {
+			final T t = this.data.get();
+			return t == null || this.adapter.writeToFileAtomically(path, t, sync);
+		}
+		
+	}
+	
+}
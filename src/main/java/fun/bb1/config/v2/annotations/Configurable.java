@@ -28,6 +28,8 @@ import fun.bb1.config.v2.IAnnotatedConfigurable;
  * A simple way to denote a field as configurable
  * 
  * @apiNote This is usually used with {@link IAnnotatedConfigurable} but can be omitted if you are using {@link fun.bb1.config.Configurable}
+ * <br>
+ * It may also be placed on enum constants to change the name they are serialized as
  * 
  * @author BradBot_1
  */
@@ -46,6 +48,18 @@ public @interface Configurable {
 	 * @return The comment to be displayed above the actual field
 	 */
 	public String comment() default "";
+	/**
+	 * @apiNote These are only used when reading, the value will always be written under {@link #value()}
+	 * 
+	 * @return Alternative names that are accepted in place of {@link #value()}, such as names that have since been renamed
+	 */
+	public String[] aliases() default {};
+	/**
+	 * @apiNote Only applies to fields declared as {@link java.util.Collection}, {@link java.util.List}, {@link java.util.Set} or {@link java.util.Map}, immutable sets and maps do not keep the order they were written in
+	 * 
+	 * @return If the value should be read into a compact immutable collection, such as {@link java.util.List#of()}, instead of a mutable one
+	 */
+	public boolean immutable() default false;
 	/**
 	 * @apiNote This value should never result in a key used elsewhere, elsewise conflicts may occur
 	 * 
@@ -0,0 +1,90 @@
+package fun.bb1.config.v2.binder;
+
+import java.lang.reflect.Type;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.ServiceLoader.Provider;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+public final class BinderController {
+	/**
+	 * The suffix the processor appends to the binary name of a class to name its binder
+	 */
+	public static final @NotNull String BINDER_SUFFIX = "_ConfigurableBinder";
+	
+	@SuppressWarnings("rawtypes")
+	private static final @NotNull ClassValue<Optional<IConfigurableBinder<?>>> BINDERS = new ClassValue<Optional<IConfigurableBinder<?>>>() {
+
+		@Override
+		protected @NotNull Optional<IConfigurableBinder<?>> computeValue(@NotNull final Class<?> type) {
+			if (type.getClassLoader() == null) return Optional.empty(); // nothing in the platform is configurable
+			final String binderName = type.getName() + BINDER_SUFFIX;
+			final Iterator<Provider<IConfigurableBinder>> providers = ServiceLoader.load(IConfigurableBinder.class, type.getClassLoader()).stream().iterator();
+			while (true) {
+				final Provider<IConfigurableBinder> provider;
+				try {
+					if (!providers.hasNext()) return Optional.empty();
+					provider = providers.next();
+				} catch (final ServiceConfigurationError e) { // a binder of a class that has since been removed, the rest can still be found
+					continue;
+				}
+				if (!provider.type().getName().equals(binderName) || provider.type().getClassLoader() != type.getClassLoader()) continue;
+				try {
+					return Optional.of(provider.get());
+				} catch (final ServiceConfigurationError e) { // bound reflectively instead
+					return Optional.empty();
+				}
+			}
+		}
+		
+	};
+	/**
+	 * @param type The class to find the generated binder of
+	 * 
+	 * @apiNote Binders are listed by the processor as {@link ServiceLoader services} of {@link IConfigurableBinder}, and are looked up through the {@link ClassLoader} of the class the first time it is configured
+	 * 
+	 * @return The generated binder of the class, or null if none was generated
+	 */
+	@SuppressWarnings("unchecked")
+	public static final <T> @Nullable IConfigurableBinder<T> getBinderFor(@NotNull final Class<T> type) {
+		return (IConfigurableBinder<T>) BINDERS.get(type).orElse(null);
+	}
+	/**
+	 * Used by generated binders to describe a parameterized field, such as {@code Map<String, List<Integer>>}, without reflecting upon it
+	 * 
+	 * @param rawType The class being parameterized
+	 * @param ownerType The type the class is a member of, null if it is a top level class
+	 * @param arguments The type arguments
+	 * 
+	 * @return A type equal to the one reflection returns for the same declaration
+	 */
+	public static final @NotNull Type parameterizedType(@NotNull final Class<?> rawType, @Nullable final Type ownerType, @NotNull final Type... arguments) {
+		return new GenericTypes.Parameterized(rawType, ownerType, arguments);
+	}
+	/**
+	 * Used by generated binders to describe an array of a generic type without reflecting upon it
+	 * 
+	 * @param componentType The generic type of the elements
+	 * 
+	 * @return A type equal to the one reflection returns for the same declaration
+	 */
+	public static final @NotNull Type arrayType(@NotNull final Type componentType) {
+		return new GenericTypes.GenericArray(componentType);
+	}
+	/**
+	 * Used by generated binders to describe a wildcard type argument without reflecting upon it
+	 * 
+	 * @param upperBound The type the wildcard extends, {@link Object} if it has no upper bound
+	 * @param lowerBound The type the wildcard is a super of, null if it has no lower bound
+	 * 
+	 * @return A type equal to the one reflection returns for the same declaration
+	 */
+	public static final @NotNull Type wildcardType(@NotNull final Type upperBound, @Nullable final Type lowerBound) {
+		return new GenericTypes.Wildcard(upperBound, lowerBound);
+	}
+	
+}
@@ -0,0 +1,140 @@
+package fun.bb1.config.v2.binder;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.Arrays;
+import java.util.Objects;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+/**
+ * The generic types that generated binders describe their fields with, built from the source rather than by reflecting upon the field
+ * <br>
+ * They are equal to, and hash the same as, the types reflection returns for the same declaration
+ */
+final class GenericTypes {
+
+	private static final @NotNull Type[] NO_TYPES = new Type[0];
+
+	private GenericTypes() { }
+
+	static final class Parameterized implements ParameterizedType {
+
+		private final @NotNull Class<?> rawType;
+		private final @Nullable Type ownerType;
+		private final @NotNull Type[] arguments;
+
+		Parameterized(@NotNull final Class<?> rawType, @Nullable final Type ownerType, @NotNull final Type[] arguments) {
+			this.rawType = rawType;
+			this.ownerType = ownerType;
+			this.arguments = arguments.clone();
+		}
+
+		@Override
+		public @NotNull Type[] getActualTypeArguments() {
+			return this.arguments.clone();
+		}
+
+		@Override
+		public @NotNull Type getRawType() {
+			return this.rawType;
+		}
+
+		@Override
+		public @Nullable Type getOwnerType() {
+			return this.ownerType;
+		}
+
+		@Override
+		public boolean equals(@Nullable final Object other) {
+			if (!(other instanceof final ParameterizedType type)) return false;
+			return this.rawType.equals(type.getRawType()) && Objects.equals(this.ownerType, type.getOwnerType()) && Arrays.equals(this.arguments, type.getActualTypeArguments());
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(this.arguments) ^ Objects.hashCode(this.ownerType) ^ this.rawType.hashCode();
+		}
+
+		@Override
+		public @NotNull String toString() {
+			final StringBuilder builder = new StringBuilder(this.rawType.getName()).append('<');
+			for (int i = 0; i < this.arguments.length; i++) {
+				builder.append(i == 0 ? "" : ", ").append(this.arguments[i].getTypeName());
+			}
+			return builder.append('>').toString();
+		}
+
+	}
+
+	static final class GenericArray implements GenericArrayType {
+
+		private final @NotNull Type componentType;
+
+		GenericArray(@NotNull final Type componentType) {
+			this.componentType = componentType;
+		}
+
+		@Override
+		public @NotNull Type getGenericComponentType() {
+			return this.componentType;
+		}
+
+		@Override
+		public boolean equals(@Nullable final Object other) {
+			return other instanceof final GenericArrayType type && this.componentType.equals(type.getGenericComponentType());
+		}
+
+		@Override
+		public int hashCode() {
+			return this.componentType.hashCode();
+		}
+
+		@Override
+		public @NotNull String toString() {
+			return this.componentType.getTypeName() + "[]";
+		}
+
+	}
+
+	static final class Wildcard implements WildcardType {
+
+		private final @NotNull Type[] upperBounds;
+		private final @NotNull Type[] lowerBounds;
+
+		Wildcard(@NotNull final Type upperBound, @Nullable final Type lowerBound) {
+			this.upperBounds = new Type[] { upperBound };
+			this.lowerBounds = lowerBound != null ? new Type[] { lowerBound } : NO_TYPES;
+		}
+
+		@Override
+		public @NotNull Type[] getUpperBounds() {
+			return this.upperBounds.clone();
+		}
+
+		@Override
+		public @NotNull Type[] getLowerBounds() {
+			return this.lowerBounds.clone();
+		}
+
+		@Override
+		public boolean equals(@Nullable final Object other) {
+			return other instanceof final WildcardType type && Arrays.equals(this.upperBounds, type.getUpperBounds()) && Arrays.equals(this.lowerBounds, type.getLowerBounds());
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(this.upperBounds) ^ Arrays.hashCode(this.lowerBounds);
+		}
+
+		@Override
+		public @NotNull String toString() {
+			if (this.lowerBounds.length != 0) return "? super " + this.lowerBounds[0].getTypeName();
+			return this.upperBounds[0] == Object.class ? "?" : "? extends " + this.upperBounds[0].getTypeName();
+		}
+
+	}
+
+}
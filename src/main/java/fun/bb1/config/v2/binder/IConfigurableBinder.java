@@ -0,0 +1,90 @@
+package fun.bb1.config.v2.binder;
+
+import java.lang.reflect.Type;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * 
+ * Copyright 2022 BradBot_1
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ * http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ * Reads and writes the {@link fun.bb1.config.v2.annotations.Configurable} fields of a class without reflection
+ * <br>
+ * Binders are generated at compile time by the simple-configs-processor module, which lists them as {@link java.util.ServiceLoader services} of this interface so that {@link BinderController} can find them
+ * 
+ * @param <T> The type being bound
+ */
+public interface IConfigurableBinder<T> {
+	/**
+	 * @return The amount of fields this binder covers
+	 */
+	public int getFieldCount();
+	/**
+	 * @param index The index of the field
+	 * 
+	 * @return The key the field is saved under
+	 */
+	public @NotNull String getKey(final int index);
+	/**
+	 * @param index The index of the field
+	 * 
+	 * @return The alternative keys the field may be read from
+	 */
+	public @NotNull String[] getAliases(final int index);
+	/**
+	 * @param index The index of the field
+	 * 
+	 * @return The comment to display alongside the field, null if there is none
+	 */
+	public @Nullable String getComment(final int index);
+	/**
+	 * @param index The index of the field
+	 * 
+	 * @return The type of the field
+	 */
+	public @NotNull Class<?> getType(final int index);
+	/**
+	 * @param index The index of the field
+	 * 
+	 * @return The generic type of the field, such as {@code List<String>}, which is the same as {@link #getType(int)} if the field is not generic
+	 */
+	public default @NotNull Type getGenericType(final int index) {
+		return this.getType(index);
+	}
+	/**
+	 * @param index The index of the field
+	 * 
+	 * @return If the field should be read into an immutable value, see {@link fun.bb1.config.v2.annotations.Configurable#immutable()}
+	 */
+	public default boolean isImmutable(final int index) {
+		return false;
+	}
+	/**
+	 * @param instance The object to read from
+	 * @param index The index of the field
+	 * 
+	 * @return The current value of the field
+	 */
+	public @Nullable Object get(@NotNull final T instance, final int index);
+	/**
+	 * @param instance The object to write to
+	 * @param index The index of the field
+	 * @param value The value to set the field to
+	 */
+	public void set(@NotNull final T instance, final int index, @Nullable final Object value);
+	
+}
@@ -0,0 +1,149 @@
+package fun.bb1.config.v2.lazy;
+
+import java.lang.reflect.Type;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import fun.bb1.config.v2.adapter.AbstractAdapter;
+import fun.bb1.config.v2.serializer.ISerializer;
+import fun.bb1.config.v2.serializer.SerializerController;
+import fun.bb1.objects.Primitive;
+import fun.bb1.objects.PrimitiveMap;
+
+/**
+ *
+ * Copyright 2022 BradBot_1
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ * http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ * Typed access to the values of a read configuration, without binding it to an object
+ * <br>
+ * Nothing is deserialized up front, each value is passed through its serializer the first time it is requested as a type and the result is kept for later requests
+ *
+ * @apiNote Values are shared between callers, so mutable values should not be modified
+ *
+ * @author BradBot_1
+ */
+public final class LazyConfiguration {
+
+	private static final @NotNull Object NONE = new Object();
+	/**
+	 * Reads the file into a lazy configuration
+	 *
+	 * @param adapter The adapter to read the file with
+	 * @param path The path to the file
+	 *
+	 * @return The configuration, or null if the file could not be read or is not a map
+	 */
+	public static @Nullable LazyConfiguration read(@NotNull final AbstractAdapter<?> adapter, @NotNull final Path path) {
+		final Primitive primitive = adapter.readFromFile(path);
+		if (primitive == null || primitive.isArray() || primitive.isString() || primitive.isNumber() || primitive.isBoolean() || primitive.isCharacter()) return null;
+		return new LazyConfiguration(primitive.getAsStringBasedMap());
+	}
+
+	private final @NotNull PrimitiveMap<String> values;
+	private final @NotNull Map<Request, Object> resolved = new ConcurrentHashMap<Request, Object>();
+
+	public LazyConfiguration(@NotNull final PrimitiveMap<String> values) {
+		this.values = values;
+	}
+	/**
+	 * @param key The key of the value
+	 * @param type The type to deserialize the value as
+	 *
+	 * @return The value, or null if it is not present or cannot be deserialized as the type
+	 */
+	public <V> @Nullable V get(@NotNull final String key, @NotNull final Class<V> type) {
+		return this.get(key, (Type) type);
+	}
+	/**
+	 * @param key The key of the value
+	 * @param type The possibly generic type to deserialize the value as, such as {@code List<String>}
+	 *
+	 * @return The value, or null if it is not present or cannot be deserialized as the type
+	 */
+	@SuppressWarnings("unchecked")
+	public <V> @Nullable V get(@NotNull final String key, @NotNull final Type type) {
+		final Request request = new Request(key, type);
+		Object value = this.resolved.get(request);
+		if (value == null) {
+			value = this.resolve(key, type);
+			final Object existing = this.resolved.putIfAbsent(request, value); // not computeIfAbsent as serializers may request other values
+			if (existing != null) value = existing;
+		}
+		return value != NONE ? (V) value : null;
+	}
+	/**
+	 * @param key The key of the value
+	 * @param type The type to deserialize the value as
+	 * @param fallback The value to return if there is none
+	 *
+	 * @return The value, or the fallback if it is not present or cannot be deserialized as the type
+	 */
+	public <V> @NotNull V get(@NotNull final String key, @NotNull final Class<V> type, @NotNull final V fallback) {
+		final V value = this.get(key, type);
+		return value != null ? value : fallback;
+	}
+	/**
+	 * @param key The key of the section
+	 *
+	 * @return The nested map under the key as its own lazy configuration, or null if there is no map under the key
+	 */
+	public @Nullable LazyConfiguration getSection(@NotNull final String key) {
+		return this.get(key, LazyConfiguration.class);
+	}
+
+	private @NotNull Object resolve(@NotNull final String key, @NotNull final Type type) {
+		final Primitive primitive = this.values.get(key);
+		if (primitive == null) return NONE;
+		if (type == LazyConfiguration.class) {
+			if (primitive.isArray() || primitive.isString() || primitive.isNumber() || primitive.isBoolean() || primitive.isCharacter()) return NONE;
+			return new LazyConfiguration(primitive.getAsStringBasedMap());
+		}
+		final ISerializer<?> serializer = SerializerController.getSerializerFor(type);
+		if (serializer == null) return NONE;
+		final Object value = serializer.deserialize(primitive);
+		return value != null ? value : NONE;
+	}
+	/**
+	 * @param key The key of the value
+	 *
+	 * @return If the configuration has a value under the key
+	 */
+	public boolean has(@NotNull final String key) {
+		return this.values.get(key) != null;
+	}
+	/**
+	 * @return The keys of every value in the configuration
+	 */
+	public @NotNull Set<String> getKeys() {
+		return this.values.keySet();
+	}
+	/**
+	 * @param key The key of the value
+	 *
+	 * @return The serialized form of the value, or null if it is not present
+	 */
+	public @Nullable Primitive getPrimitive(@NotNull final String key) {
+		return this.values.get(key);
+	}
+
+	private static record Request(@NotNull String key, @NotNull Type type) { }
+
+}
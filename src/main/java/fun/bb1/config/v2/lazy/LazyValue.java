@@ -0,0 +1,109 @@
+package fun.bb1.config.v2.lazy;
+
+import java.util.function.Supplier;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import fun.bb1.config.v2.serializer.ISerializer;
+import fun.bb1.objects.Primitive;
+
+/**
+ *
+ * Copyright 2022 BradBot_1
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ * http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ * A value that is only deserialized the first time it is used
+ * <br>
+ * Declaring a configurable field as {@code LazyValue<T>} keeps its {@link Primitive} form when the configuration is read, it is passed through the serializer of T on the first {@link #get()} and the result is kept from then on
+ * <br>
+ * Values that have never been read are saved from their {@link Primitive} form, without deserializing them
+ *
+ * @param <T> The type of the value
+ *
+ * @apiNote Safe to share between threads, the value is only ever deserialized once
+ *
+ * @author BradBot_1
+ */
+public final class LazyValue<T> implements Supplier<T> {
+	/**
+	 * @param value The value
+	 *
+	 * @return A lazy value that has already been resolved to the provided value
+	 */
+	public static <T> @NotNull LazyValue<T> of(@Nullable final T value) {
+		return new LazyValue<T>(value);
+	}
+	/**
+	 * @param primitive The serialized value
+	 * @param serializer The serializer to deserialize it with on first use
+	 *
+	 * @return A lazy value that is deserialized on first use
+	 */
+	public static <T> @NotNull LazyValue<T> deferred(@NotNull final Primitive primitive, @NotNull final ISerializer<T> serializer) {
+		return new LazyValue<T>(primitive, serializer);
+	}
+
+	private volatile @Nullable Primitive primitive;
+	private @Nullable ISerializer<T> serializer;
+	private volatile boolean resolved;
+	private @Nullable T value;
+
+	private LazyValue(@Nullable final T value) {
+		this.value = value;
+		this.resolved = true;
+	}
+
+	private LazyValue(@NotNull final Primitive primitive, @NotNull final ISerializer<T> serializer) {
+		this.primitive = primitive;
+		this.serializer = serializer;
+		this.resolved = false;
+	}
+	/**
+	 * @return The value, deserializing it if this is the first time it has been used
+	 */
+	@Override
+	public @Nullable T get() {
+		if (!this.resolved) {
+			synchronized (this) {
+				if (!this.resolved) {
+					this.value = this.serializer.deserialize(this.primitive);
+					this.resolved = true;
+					this.serializer = null;
+					this.primitive = null; // cleared after resolved is set, so whilst it is visible the value has not been deserialized
+				}
+			}
+		}
+		return this.value;
+	}
+	/**
+	 * @return If the value has been deserialized
+	 */
+	public boolean isResolved() {
+		return this.resolved;
+	}
+	/**
+	 * @return The serialized form of the value if it has not been deserialized yet, elsewise null
+	 */
+	public @Nullable Primitive getUnresolved() {
+		return this.primitive;
+	}
+
+	@Override
+	public @NotNull String toString() {
+		return this.resolved ? String.valueOf(this.value) : "LazyValue[unresolved]";
+	}
+
+}
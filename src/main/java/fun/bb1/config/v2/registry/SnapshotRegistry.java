@@ -0,0 +1,116 @@
+package fun.bb1.config.v2.registry;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import fun.bb1.registry.IRegistry;
+/**
+ * A registry keyed by class that is safe to read from any thread whilst being registered to
+ * <br>
+ * Every registration publishes a new immutable snapshot, reads never lock and always see a complete snapshot
+ * <br>
+ * {@link #resolve(Class)} falls back to the superclasses and then the interfaces of a class, the result of which is cached per class until the next registration
+ * 
+ * @apiNote Registration copies every entry, so it is intended for registries that are read far more often than they are written to
+ */
+public class SnapshotRegistry<V> implements IRegistry<Class<?>, V> {
+	/**
+	 * Cached in place of null so that classes without a value are not walked again
+	 */
+	private static final @NotNull Object NONE = new Object();
+	
+	private volatile @NotNull Snapshot<V> snapshot = new Snapshot<V>(Map.of(), 0);
+	
+	@Override
+	public void register(@NotNull final Class<?> key, @NotNull final V value) {
+		synchronized (this) {
+			final Snapshot<V> current = this.snapshot;
+			final Map<Class<?>, V> entries = new HashMap<Class<?>, V>(current.entries());
+			entries.put(key, value);
+			this.snapshot = new Snapshot<V>(Map.copyOf(entries), current.version() + 1);
+		}
+	}
+	/**
+	 * @return The value registered under exactly the provided class, or null if there is none
+	 */
+	@Override
+	public @Nullable V get(@NotNull final Class<?> key) {
+		return this.snapshot.entries().get(key);
+	}
+	/**
+	 * Finds the value registered for the provided class, checking in order the class itself, its superclasses (nearest first), the interfaces it implements (breadth first) and finally {@link Object}
+	 * 
+	 * @param type The class to resolve the value of
+	 * 
+	 * @return The closest registered value, or null if there is none
+	 */
+	@SuppressWarnings("unchecked")
+	public @Nullable V resolve(@NotNull final Class<?> type) {
+		final Snapshot<V> snapshot = this.snapshot;
+		final V exact = snapshot.entries().get(type);
+		if (exact != null) return exact;
+		Object resolved = snapshot.resolved().get(type);
+		if (resolved == null) {
+			resolved = walk(snapshot.entries(), type);
+			if (resolved == null) resolved = NONE;
+			snapshot.resolved().putIfAbsent(type, resolved);
+		}
+		return resolved != NONE ? (V) resolved : null;
+	}
+	
+	private static <V> @Nullable V walk(@NotNull final Map<Class<?>, V> entries, @NotNull final Class<?> type) {
+		if (entries.isEmpty()) return null;
+		for (Class<?> current = type.getSuperclass(); current != null && current != Object.class; current = current.getSuperclass()) {
+			final V value = entries.get(current);
+			if (value != null) return value;
+		}
+		final ArrayDeque<Class<?>> interfaces = new ArrayDeque<Class<?>>();
+		for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+			Collections.addAll(interfaces, current.getInterfaces());
+		}
+		final Set<Class<?>> visited = new HashSet<Class<?>>();
+		while (!interfaces.isEmpty()) {
+			final Class<?> current = interfaces.poll();
+			if (!visited.add(current)) continue;
+			final V value = entries.get(current);
+			if (value != null) return value;
+			Collections.addAll(interfaces, current.getInterfaces());
+		}
+		return type.isInterface() || type.isPrimitive() ? null : entries.get(Object.class);
+	}
+	/**
+	 * @apiNote This increases by one on every registration
+	 * 
+	 * @return The version of the current snapshot
+	 */
+	public int getVersion() {
+		return this.snapshot.version();
+	}
+	/**
+	 * @return An immutable view of every registered entry at the time of calling
+	 */
+	public @NotNull Map<Class<?>, V> getEntries() {
+		return this.snapshot.entries();
+	}
+	/**
+	 * @param entries The registered values, never modified once published
+	 * @param version The number of registrations made before this snapshot was published
+	 * @param resolved Values found by walking the hierarchy of a class, discarded alongside the snapshot
+	 */
+	private static record Snapshot<V>(@NotNull Map<Class<?>, V> entries, int version, @NotNull Map<Class<?>, Object> resolved) {
+		
+		private Snapshot(@NotNull final Map<Class<?>, V> entries, final int version) {
+			this(entries, version, new ConcurrentHashMap<Class<?>, Object>());
+		}
+		
+	}
+	
+}
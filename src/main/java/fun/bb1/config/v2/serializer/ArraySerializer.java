@@ -0,0 +1,66 @@
+package fun.bb1.config.v2.serializer;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+
+import org.jetbrains.annotations.NotNull;
+
+import fun.bb1.config.v2.adapter.IConfigurationSink;
+import fun.bb1.objects.Primitive;
+/**
+ * Serializes arrays of any reference type by delegating each element to the serializer of the component type
+ * <br>
+ * Multi-dimensional arrays are built by nesting these, so each dimension is allocated at exactly the length stored
+ * 
+ * @apiNote Elements that cannot be (de)serialized are left as null
+ */
+final class ArraySerializer<T> implements ISerializer<T> {
+	
+	private final @NotNull Class<?> componentType;
+	private final @NotNull ISerializer<Object> componentSerializer;
+	
+	ArraySerializer(@NotNull final Class<?> componentType, @NotNull final ISerializer<?> componentSerializer) {
+		this.componentType = componentType;
+		this.componentSerializer = componentSerializer.toObjectSerializer();
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public @NotNull T deserialize(@NotNull final Primitive primitiveForm) {
+		final Primitive[] primitives = primitiveForm.getAsArray();
+		final Object[] arr = (Object[]) Array.newInstance(this.componentType, primitives.length);
+		for (int i = 0; i < arr.length; i++) {
+			if (primitives[i] == null) continue;
+			final Object value = this.componentSerializer.deserialize(primitives[i]);
+			if (this.componentType.isInstance(value)) arr[i] = value;
+		}
+		return (T) arr;
+	}
+
+	@Override
+	public @NotNull Primitive serialize(@NotNull final T instanceOfT) {
+		final Object[] arr = (Object[]) instanceOfT;
+		final Primitive[] primitives = new Primitive[arr.length];
+		for (int i = 0; i < primitives.length; i++) {
+			if (arr[i] == null) continue;
+			try {
+				primitives[i] = this.componentSerializer.serialize(arr[i]);
+			} catch (Throwable e) { }
+		}
+		return new Primitive(primitives);
+	}
+	
+	@Override
+	public void serializeTo(@NotNull final IConfigurationSink sink, @NotNull final T instanceOfT) throws IOException {
+		sink.beginArray();
+		for (final Object element : (Object[]) instanceOfT) {
+			if (element == null) {
+				sink.nullValue();
+			} else {
+				this.componentSerializer.serializeTo(sink, element);
+			}
+		}
+		sink.endArray();
+	}
+	
+}
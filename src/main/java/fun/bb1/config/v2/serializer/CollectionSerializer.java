@@ -0,0 +1,169 @@
+package fun.bb1.config.v2.serializer;
+
+import static fun.bb1.exceptions.handler.ExceptionHandler.handle;
+import static java.lang.invoke.MethodType.methodType;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.function.IntFunction;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import fun.bb1.config.v2.adapter.IConfigurationSink;
+import fun.bb1.objects.Primitive;
+/**
+ * Serializes collections of a single element type, built once per parameterized type by {@link SerializerController}
+ * <br>
+ * Interfaces are created as {@link ArrayList}, {@link LinkedHashSet}, {@link TreeSet} or {@link ArrayDeque}, anything else via its public constructor; the target is always presized from the stored length
+ * 
+ * @apiNote Elements that are null or cannot be deserialized are skipped
+ */
+final class CollectionSerializer<T> implements ISerializer<T> {
+	/**
+	 * @param type The raw collection type
+	 * @param elementSerializer The serializer of the elements
+	 * 
+	 * @return A serializer for the collection, or null if it cannot be constructed
+	 */
+	static <T> @Nullable CollectionSerializer<T> of(@NotNull final Class<?> type, @NotNull final ISerializer<?> elementSerializer) {
+		final IntFunction<Object> factory = getFactory(type);
+		if (factory == null) return null;
+		return new CollectionSerializer<T>(type, factory, elementSerializer.toObjectSerializer(), false);
+	}
+	
+	private static @Nullable IntFunction<Object> getFactory(@NotNull final Class<?> type) {
+		if (type == Collection.class || type == List.class) return ArrayList::new;
+		if (type == Set.class) return (size)->new LinkedHashSet<Object>(hashCapacity(size)); // keep the order it was written in
+		if (type == SortedSet.class || type == NavigableSet.class) return (size)->new TreeSet<Object>();
+		if (type == Queue.class || type == java.util.Deque.class) return ArrayDeque::new;
+		if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) return null;
+		return getConstructor(type);
+	}
+	/**
+	 * @param type A concrete collection or map type
+	 * 
+	 * @return A factory using the (int) constructor if present, elsewise the no argument one, or null if neither is public
+	 */
+	static @Nullable IntFunction<Object> getConstructor(@NotNull final Class<?> type) {
+		final boolean hashed = HashSet.class.isAssignableFrom(type) || HashMap.class.isAssignableFrom(type);
+		final MethodHandle sized = handle(()->MethodHandles.publicLookup().findConstructor(type, methodType(void.class, int.class)).asType(methodType(Object.class, int.class)));
+		if (sized != null) {
+			return (size)->{
+				try {
+					return (Object) sized.invokeExact(hashed ? hashCapacity(size) : size);
+				} catch (Throwable e) {
+					throw new IllegalStateException(e);
+				}
+			};
+		}
+		final MethodHandle empty = handle(()->MethodHandles.publicLookup().findConstructor(type, methodType(void.class)).asType(methodType(Object.class)));
+		if (empty == null) return null;
+		return (size)->{
+			try {
+				return (Object) empty.invokeExact();
+			} catch (Throwable e) {
+				throw new IllegalStateException(e);
+			}
+		};
+	}
+	/**
+	 * @return The capacity a hash based collection needs to hold the size without resizing
+	 */
+	static int hashCapacity(final int size) {
+		return (int) (size / 0.75f) + 1;
+	}
+	
+	private final @NotNull Class<?> type;
+	private final @NotNull IntFunction<Object> factory;
+	private final @NotNull ISerializer<Object> elementSerializer;
+	private final boolean immutable;
+	private volatile @Nullable CollectionSerializer<T> immutableSerializer;
+	
+	private CollectionSerializer(@NotNull final Class<?> type, @NotNull final IntFunction<Object> factory, @NotNull final ISerializer<Object> elementSerializer, final boolean immutable) {
+		this.type = type;
+		this.factory = factory;
+		this.elementSerializer = elementSerializer;
+		this.immutable = immutable;
+	}
+	/**
+	 * @return A serializer that creates {@link List#of()} and {@link Set#copyOf(Collection)} collections, or this if the type cannot be immutable
+	 * 
+	 * @apiNote Immutable sets do not keep the order they were written in
+	 */
+	@NotNull ISerializer<T> toImmutable() {
+		if (this.immutable || (this.type != Collection.class && this.type != List.class && this.type != Set.class)) return this;
+		CollectionSerializer<T> immutableSerializer = this.immutableSerializer;
+		if (immutableSerializer == null) {
+			immutableSerializer = new CollectionSerializer<T>(this.type, this.factory, this.elementSerializer, true);
+			this.immutableSerializer = immutableSerializer;
+		}
+		return immutableSerializer;
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public @NotNull T deserialize(@NotNull final Primitive primitiveForm) {
+		final Primitive[] primitives = primitiveForm.getAsArray();
+		if (this.immutable) {
+			final Object[] elements = new Object[primitives.length];
+			int size = 0;
+			for (final Primitive primitive : primitives) {
+				if (primitive == null) continue;
+				final Object element = this.elementSerializer.deserialize(primitive);
+				if (element != null) elements[size++] = element;
+			}
+			final Object[] trimmed = size == elements.length ? elements : Arrays.copyOf(elements, size);
+			return (T) (this.type == Set.class ? Set.copyOf(Arrays.asList(trimmed)) : List.of(trimmed));
+		}
+		final Collection<Object> collection = (Collection<Object>) this.factory.apply(primitives.length);
+		for (final Primitive primitive : primitives) {
+			if (primitive == null) continue;
+			final Object element = this.elementSerializer.deserialize(primitive);
+			if (element != null) collection.add(element);
+		}
+		return (T) collection;
+	}
+
+	@Override
+	public @NotNull Primitive serialize(@NotNull final T instanceOfT) {
+		final Collection<?> collection = (Collection<?>) instanceOfT;
+		final Primitive[] primitives = new Primitive[collection.size()];
+		int i = 0;
+		for (final Object element : collection) {
+			if (i >= primitives.length) break; // grew whilst being serialized
+			if (element != null) primitives[i] = this.elementSerializer.serialize(element);
+			i++;
+		}
+		return new Primitive(primitives);
+	}
+	
+	@Override
+	public void serializeTo(@NotNull final IConfigurationSink sink, @NotNull final T instanceOfT) throws IOException {
+		sink.beginArray();
+		for (final Object element : (Collection<?>) instanceOfT) {
+			if (element == null) {
+				sink.nullValue();
+			} else {
+				this.elementSerializer.serializeTo(sink, element);
+			}
+		}
+		sink.endArray();
+	}
+	
+}
@@ -0,0 +1,69 @@
+package fun.bb1.config.v2.serializer;
+
+import static fun.bb1.exceptions.handler.ExceptionHandler.handle;
+
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import fun.bb1.config.v2.annotations.Configurable;
+import fun.bb1.objects.Primitive;
+/**
+ * Serializes enum constants by name, built once per enum
+ * <br>
+ * A constant annotated with {@link Configurable} is written as {@link Configurable#value()} and may also be read from any of its {@link Configurable#aliases()}
+ * <br>
+ * Names are matched case insensitively, and numbers are treated as ordinals
+ */
+final class EnumSerializer<E extends Enum<E>> implements ISerializer<E> {
+	
+	private final @NotNull E[] constants;
+	private final @NotNull Primitive[] serializedConstants;
+	private final @NotNull Map<String, E> constantsByName;
+	
+	EnumSerializer(@NotNull final Class<E> type) {
+		this.constants = type.getEnumConstants();
+		this.serializedConstants = new Primitive[this.constants.length];
+		this.constantsByName = new HashMap<String, E>(this.constants.length * 4);
+		for (final E constant : this.constants) {
+			final Field field = handle(()->type.getDeclaredField(constant.name()));
+			final @Nullable Configurable annotation = field != null ? field.getAnnotation(Configurable.class) : null;
+			final String name = annotation != null && !annotation.value().isEmpty() ? annotation.value() : constant.name();
+			this.serializedConstants[constant.ordinal()] = new Primitive(name);
+			this.index(name, constant);
+			this.index(constant.name(), constant);
+			if (annotation == null) continue;
+			for (final String alias : annotation.aliases()) {
+				this.index(alias, constant);
+			}
+		}
+	}
+	/**
+	 * Indexes the name as is and in lower case, so an exact match never needs to allocate
+	 */
+	private void index(@NotNull final String name, @NotNull final E constant) {
+		this.constantsByName.putIfAbsent(name, constant);
+		this.constantsByName.putIfAbsent(name.toLowerCase(Locale.ROOT), constant);
+	}
+
+	@Override
+	public @Nullable E deserialize(@NotNull final Primitive primitiveForm) {
+		if (primitiveForm.isNumber()) {
+			final int ordinal = primitiveForm.getAsNumber().intValue();
+			return ordinal >= 0 && ordinal < this.constants.length ? this.constants[ordinal] : null;
+		}
+		final String name = primitiveForm.getAsString();
+		final E constant = this.constantsByName.get(name);
+		return constant != null ? constant : this.constantsByName.get(name.toLowerCase(Locale.ROOT));
+	}
+
+	@Override
+	public @NotNull Primitive serialize(@NotNull final E instanceOfT) {
+		return this.serializedConstants[instanceOfT.ordinal()];
+	}
+	
+}
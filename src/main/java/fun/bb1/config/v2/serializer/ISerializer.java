@@ -1,9 +1,12 @@
 package fun.bb1.config.v2.serializer;
 
+import java.io.IOException;
+
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.ApiStatus.Internal;
 
+import fun.bb1.config.v2.adapter.IConfigurationSink;
 import fun.bb1.objects.Primitive;
 import fun.bb1.registry.IRegisterable;
 
@@ -51,6 +54,31 @@ public interface ISerializer<T extends Object> extends IRegisterable<Class<? ext
 	 * @return A serialized object
 	 */
 	public @Nullable Primitive serialize(@NotNull final T instanceOfT);
+	/**
+	 * Serializes the provided T straight into the sink
+	 * 
+	 * @apiNote The default implementation writes the result of {@link #serialize(Object)}, nothing is written if that is null
+	 * 
+	 * @param sink The sink to write to
+	 * @param instanceOfT The instance of T to be serialized
+	 * 
+	 * @throws IOException If the sink fails
+	 */
+	public default void serializeTo(@NotNull final IConfigurationSink sink, @NotNull final T instanceOfT) throws IOException {
+		final Primitive primitive = this.serialize(instanceOfT);
+		if (primitive != null) sink.value(primitive);
+	}
+	
+	/**
+	 * Declares that this serializer can also serialize and deserialize the subclasses and implementations of the type it is registered for
+	 * 
+	 * @apiNote Only serializers that return true are used for a type that has no serializer registered for exactly it, defaults to false
+	 * 
+	 * @return If this serializer handles the subtypes of the type it is registered for
+	 */
+	public default boolean handlesSubtypes() {
+		return false;
+	}
 	
 	@Override
 	default void register(@NotNull final Class<? extends T> arg0) {
@@ -72,6 +100,12 @@ public interface ISerializer<T extends Object> extends IRegisterable<Class<? ext
 			public @Nullable Primitive serialize(@NotNull Object instanceOfT) {
 				return self.serialize((T)instanceOfT);
 			}
+
+			@SuppressWarnings("unchecked")
+			@Override
+			public void serializeTo(@NotNull IConfigurationSink sink, @NotNull Object instanceOfT) throws IOException {
+				self.serializeTo(sink, (T)instanceOfT);
+			}
 		};
 	}
 	
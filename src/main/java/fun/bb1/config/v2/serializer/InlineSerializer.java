@@ -1,9 +1,12 @@
 package fun.bb1.config.v2.serializer;
 
+import java.io.IOException;
 import java.util.function.Function;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import fun.bb1.config.v2.adapter.IConfigurationSink;
 import fun.bb1.objects.Primitive;
 import fun.bb1.objects.defineables.IInline;
 
@@ -11,10 +14,30 @@ public final class InlineSerializer<T> implements ISerializer<T>, IInline {
 	
 	private @NotNull final Function<Primitive, T> translateTo;
 	private @NotNull final Function<T, Primitive> translateFrom;
+	private @Nullable final SinkWriter<T> writeTo;
+	private final boolean handlesSubtypes;
 	
 	public InlineSerializer(@NotNull final Function<Primitive, T> translateTo, @NotNull final Function<T, Primitive> translateFrom) {
+		this(translateTo, translateFrom, null);
+	}
+	/**
+	 * @param writeTo Writes T straight into a sink, if null {@link #serializeTo(IConfigurationSink, Object)} writes the result of translateFrom
+	 */
+	public InlineSerializer(@NotNull final Function<Primitive, T> translateTo, @NotNull final Function<T, Primitive> translateFrom, @Nullable final SinkWriter<T> writeTo) {
+		this(translateTo, translateFrom, writeTo, false);
+	}
+	
+	private InlineSerializer(@NotNull final Function<Primitive, T> translateTo, @NotNull final Function<T, Primitive> translateFrom, @Nullable final SinkWriter<T> writeTo, final boolean handlesSubtypes) {
 		this.translateTo = translateTo;
 		this.translateFrom = translateFrom;
+		this.writeTo = writeTo;
+		this.handlesSubtypes = handlesSubtypes;
+	}
+	/**
+	 * @return A copy of this serializer that is also used for the subclasses and implementations of the type it is registered for
+	 */
+	public final @NotNull InlineSerializer<T> handlingSubtypes() {
+		return new InlineSerializer<T>(this.translateTo, this.translateFrom, this.writeTo, true);
 	}
 	
 	@Override
@@ -27,4 +50,26 @@ public final class InlineSerializer<T> implements ISerializer<T>, IInline {
 		return this.translateFrom.apply(primitiveForm);
 	}
 
+	@Override
+	public final void serializeTo(@NotNull final IConfigurationSink sink, @NotNull final T instanceOfT) throws IOException {
+		if (this.writeTo == null) {
+			ISerializer.super.serializeTo(sink, instanceOfT);
+			return;
+		}
+		this.writeTo.write(sink, instanceOfT);
+	}
+	@Override
+	public final boolean handlesSubtypes() {
+		return this.handlesSubtypes;
+	}
+	/**
+	 * Writes an instance of T straight into a sink
+	 */
+	@FunctionalInterface
+	public static interface SinkWriter<T> {
+		
+		public void write(@NotNull final IConfigurationSink sink, @NotNull final T t) throws IOException;
+		
+	}
+
 }
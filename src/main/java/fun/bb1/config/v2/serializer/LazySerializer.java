@@ -0,0 +1,62 @@
+package fun.bb1.config.v2.serializer;
+
+import java.io.IOException;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import fun.bb1.config.v2.adapter.IConfigurationSink;
+import fun.bb1.config.v2.lazy.LazyValue;
+import fun.bb1.objects.Primitive;
+/**
+ * Serializes {@link LazyValue}s, built once per parameterized type by {@link SerializerController}
+ * <br>
+ * Deserializing only wraps the {@link Primitive}, the serializer of the value is used on first access; values that were never accessed are saved from their {@link Primitive} form
+ */
+final class LazySerializer<T> implements ISerializer<LazyValue<T>> {
+
+	private final @NotNull ISerializer<T> valueSerializer;
+	private volatile @Nullable LazySerializer<T> immutableSerializer;
+
+	LazySerializer(@NotNull final ISerializer<T> valueSerializer) {
+		this.valueSerializer = valueSerializer;
+	}
+	/**
+	 * @return A serializer whose values are deserialized with the immutable form of the value serializer
+	 */
+	@SuppressWarnings("unchecked")
+	@NotNull ISerializer<LazyValue<T>> toImmutable() {
+		LazySerializer<T> immutableSerializer = this.immutableSerializer;
+		if (immutableSerializer == null) {
+			final ISerializer<T> immutableValueSerializer = (ISerializer<T>) SerializerController.toImmutable(this.valueSerializer);
+			immutableSerializer = immutableValueSerializer == this.valueSerializer ? this : new LazySerializer<T>(immutableValueSerializer);
+			this.immutableSerializer = immutableSerializer;
+		}
+		return immutableSerializer;
+	}
+
+	@Override
+	public @NotNull LazyValue<T> deserialize(@NotNull final Primitive primitiveForm) {
+		return LazyValue.deferred(primitiveForm, this.valueSerializer);
+	}
+
+	@Override
+	public @Nullable Primitive serialize(@NotNull final LazyValue<T> instanceOfT) {
+		final Primitive unresolved = instanceOfT.getUnresolved();
+		if (unresolved != null) return unresolved;
+		final T value = instanceOfT.get();
+		return value != null ? this.valueSerializer.serialize(value) : null;
+	}
+
+	@Override
+	public void serializeTo(@NotNull final IConfigurationSink sink, @NotNull final LazyValue<T> instanceOfT) throws IOException {
+		final Primitive unresolved = instanceOfT.getUnresolved();
+		if (unresolved != null) {
+			sink.value(unresolved);
+			return;
+		}
+		final T value = instanceOfT.get();
+		if (value != null) this.valueSerializer.serializeTo(sink, value);
+	}
+
+}
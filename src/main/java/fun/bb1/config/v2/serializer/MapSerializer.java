@@ -0,0 +1,147 @@
+package fun.bb1.config.v2.serializer;
+
+import static fun.bb1.exceptions.handler.ExceptionHandler.handle;
+
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.IntFunction;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import fun.bb1.config.v2.adapter.IConfigurationSink;
+import fun.bb1.objects.Primitive;
+import fun.bb1.objects.PrimitiveMap;
+/**
+ * Serializes maps into a {@link PrimitiveMap}, built once per parameterized type by {@link SerializerController}
+ * <br>
+ * Keys are stored as strings, keys that are not strings are passed through the serializer of the key type
+ * <br>
+ * Interfaces are created as {@link LinkedHashMap}, {@link TreeMap} or {@link ConcurrentHashMap}, anything else via its public constructor; the target is always presized from the stored size
+ * 
+ * @apiNote Entries with a key or value that cannot be (de)serialized are skipped
+ */
+final class MapSerializer<T> implements ISerializer<T> {
+	/**
+	 * @param type The raw map type
+	 * @param keyType The raw type of the keys
+	 * @param keySerializer The serializer of the keys
+	 * @param valueSerializer The serializer of the values
+	 * 
+	 * @return A serializer for the map, or null if it cannot be constructed
+	 */
+	static <T> @Nullable MapSerializer<T> of(@NotNull final Class<?> type, @NotNull final Class<?> keyType, @NotNull final ISerializer<?> keySerializer, @NotNull final ISerializer<?> valueSerializer) {
+		final IntFunction<Object> factory = getFactory(type);
+		if (factory == null) return null;
+		return new MapSerializer<T>(type, factory, keyType == String.class ? null : keySerializer.toObjectSerializer(), isNumeric(keyType), valueSerializer.toObjectSerializer(), false);
+	}
+	
+	private static @Nullable IntFunction<Object> getFactory(@NotNull final Class<?> type) {
+		if (type == Map.class) return (size)->new LinkedHashMap<Object, Object>(CollectionSerializer.hashCapacity(size)); // keep the order it was written in
+		if (type == SortedMap.class || type == NavigableMap.class) return (size)->new TreeMap<Object, Object>();
+		if (type == ConcurrentMap.class) return ConcurrentHashMap::new;
+		if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) return null;
+		return CollectionSerializer.getConstructor(type);
+	}
+	
+	private static boolean isNumeric(@NotNull final Class<?> type) {
+		return Number.class.isAssignableFrom(type) || (type.isPrimitive() && type != boolean.class && type != char.class);
+	}
+	
+	private final @NotNull Class<?> type;
+	private final @NotNull IntFunction<Object> factory;
+	private final @Nullable ISerializer<Object> keySerializer;
+	private final boolean numericKeys;
+	private final @NotNull ISerializer<Object> valueSerializer;
+	private final boolean immutable;
+	private volatile @Nullable MapSerializer<T> immutableSerializer;
+	
+	private MapSerializer(@NotNull final Class<?> type, @NotNull final IntFunction<Object> factory, @Nullable final ISerializer<Object> keySerializer, final boolean numericKeys, @NotNull final ISerializer<Object> valueSerializer, final boolean immutable) {
+		this.type = type;
+		this.factory = factory;
+		this.keySerializer = keySerializer;
+		this.numericKeys = numericKeys;
+		this.valueSerializer = valueSerializer;
+		this.immutable = immutable;
+	}
+	/**
+	 * @return A serializer that creates {@link Map#copyOf(Map)} maps, or this if the type cannot be immutable
+	 * 
+	 * @apiNote Immutable maps do not keep the order they were written in
+	 */
+	@NotNull ISerializer<T> toImmutable() {
+		if (this.immutable || this.type != Map.class) return this;
+		MapSerializer<T> immutableSerializer = this.immutableSerializer;
+		if (immutableSerializer == null) {
+			immutableSerializer = new MapSerializer<T>(this.type, this.factory, this.keySerializer, this.numericKeys, this.valueSerializer, true);
+			this.immutableSerializer = immutableSerializer;
+		}
+		return immutableSerializer;
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public @NotNull T deserialize(@NotNull final Primitive primitiveForm) {
+		final PrimitiveMap<String> primitiveMap = primitiveForm.getAsStringBasedMap();
+		final Map<Object, Object> map = (Map<Object, Object>) this.factory.apply(primitiveMap.size());
+		for (final Entry<String, Primitive> entry : primitiveMap.entrySet()) {
+			if (entry.getValue() == null) continue;
+			final Object key = this.deserializeKey(entry.getKey());
+			if (key == null) continue;
+			final Object value = this.valueSerializer.deserialize(entry.getValue());
+			if (value != null) map.put(key, value);
+		}
+		return (T) (this.immutable ? Map.copyOf(map) : map);
+	}
+	
+	private @Nullable Object deserializeKey(@NotNull final String key) {
+		if (this.keySerializer == null) return key;
+		if (this.numericKeys) {
+			final BigDecimal number = handle(()->new BigDecimal(key));
+			return number != null ? handle(()->this.keySerializer.deserialize(new Primitive(number))) : null;
+		}
+		return handle(()->this.keySerializer.deserialize(new Primitive(key)));
+	}
+
+	@Override
+	public @NotNull Primitive serialize(@NotNull final T instanceOfT) {
+		final PrimitiveMap<String> primitiveMap = new PrimitiveMap<String>();
+		for (final Entry<?, ?> entry : ((Map<?, ?>) instanceOfT).entrySet()) {
+			if (entry.getKey() == null || entry.getValue() == null) continue;
+			final String key = this.serializeKey(entry.getKey());
+			if (key == null) continue;
+			final Primitive value = this.valueSerializer.serialize(entry.getValue());
+			if (value != null) primitiveMap.put(key, value);
+		}
+		return new Primitive(primitiveMap);
+	}
+	
+	@Override
+	public void serializeTo(@NotNull final IConfigurationSink sink, @NotNull final T instanceOfT) throws IOException {
+		sink.beginObject();
+		for (final Entry<?, ?> entry : ((Map<?, ?>) instanceOfT).entrySet()) {
+			if (entry.getKey() == null || entry.getValue() == null) continue;
+			final String key = this.serializeKey(entry.getKey());
+			if (key == null) continue;
+			sink.key(key);
+			this.valueSerializer.serializeTo(sink, entry.getValue());
+		}
+		sink.endObject();
+	}
+	
+	private @Nullable String serializeKey(@NotNull final Object key) {
+		if (this.keySerializer == null) return (String) key;
+		final Primitive primitive = this.keySerializer.serialize(key);
+		return primitive != null ? primitive.getAsString() : null;
+	}
+	
+}
@@ -0,0 +1,185 @@
+package fun.bb1.config.v2.serializer;
+
+import org.jetbrains.annotations.NotNull;
+
+import fun.bb1.objects.Primitive;
+/**
+ * Serializers for every primitive array type, these fill the target array directly rather than boxing each element through a component serializer
+ * <br>
+ * Multi-dimensional primitive arrays are handled by {@link ArraySerializer} wrapping these
+ * 
+ * @apiNote Null elements are left as the default value of the primitive
+ */
+final class PrimitiveArraySerializers {
+	
+	static final @NotNull ISerializer<int[]> INT_ARRAY = new InlineSerializer<int[]>((p)->{
+		final Primitive[] primitives = p.getAsArray();
+		final int[] arr = new int[primitives.length];
+		for (int i = 0; i < arr.length; i++) {
+			if (primitives[i] != null) arr[i] = primitives[i].getAsNumber().intValue();
+		}
+		return arr;
+	}, (t)->{
+		final Primitive[] primitives = new Primitive[t.length];
+		for (int i = 0; i < primitives.length; i++) {
+			primitives[i] = new Primitive(t[i]);
+		}
+		return new Primitive(primitives);
+	}, (s, t)->{
+		s.beginArray();
+		for (final int value : t) {
+			s.value(value);
+		}
+		s.endArray();
+	});
+	
+	static final @NotNull ISerializer<long[]> LONG_ARRAY = new InlineSerializer<long[]>((p)->{
+		final Primitive[] primitives = p.getAsArray();
+		final long[] arr = new long[primitives.length];
+		for (int i = 0; i < arr.length; i++) {
+			if (primitives[i] != null) arr[i] = primitives[i].getAsNumber().longValue();
+		}
+		return arr;
+	}, (t)->{
+		final Primitive[] primitives = new Primitive[t.length];
+		for (int i = 0; i < primitives.length; i++) {
+			primitives[i] = new Primitive(t[i]);
+		}
+		return new Primitive(primitives);
+	}, (s, t)->{
+		s.beginArray();
+		for (final long value : t) {
+			s.value(value);
+		}
+		s.endArray();
+	});
+	
+	static final @NotNull ISerializer<double[]> DOUBLE_ARRAY = new InlineSerializer<double[]>((p)->{
+		final Primitive[] primitives = p.getAsArray();
+		final double[] arr = new double[primitives.length];
+		for (int i = 0; i < arr.length; i++) {
+			if (primitives[i] != null) arr[i] = primitives[i].getAsNumber().doubleValue();
+		}
+		return arr;
+	}, (t)->{
+		final Primitive[] primitives = new Primitive[t.length];
+		for (int i = 0; i < primitives.length; i++) {
+			primitives[i] = new Primitive(t[i]);
+		}
+		return new Primitive(primitives);
+	}, (s, t)->{
+		s.beginArray();
+		for (final double value : t) {
+			s.value(value);
+		}
+		s.endArray();
+	});
+	
+	static final @NotNull ISerializer<float[]> FLOAT_ARRAY = new InlineSerializer<float[]>((p)->{
+		final Primitive[] primitives = p.getAsArray();
+		final float[] arr = new float[primitives.length];
+		for (int i = 0; i < arr.length; i++) {
+			if (primitives[i] != null) arr[i] = primitives[i].getAsNumber().floatValue();
+		}
+		return arr;
+	}, (t)->{
+		final Primitive[] primitives = new Primitive[t.length];
+		for (int i = 0; i < primitives.length; i++) {
+			primitives[i] = new Primitive(t[i]);
+		}
+		return new Primitive(primitives);
+	}, (s, t)->{
+		s.beginArray();
+		for (final float value : t) {
+			s.value((Number) value); // widening to a double would change how it is written
+		}
+		s.endArray();
+	});
+	
+	static final @NotNull ISerializer<short[]> SHORT_ARRAY = new InlineSerializer<short[]>((p)->{
+		final Primitive[] primitives = p.getAsArray();
+		final short[] arr = new short[primitives.length];
+		for (int i = 0; i < arr.length; i++) {
+			if (primitives[i] != null) arr[i] = primitives[i].getAsNumber().shortValue();
+		}
+		return arr;
+	}, (t)->{
+		final Primitive[] primitives = new Primitive[t.length];
+		for (int i = 0; i < primitives.length; i++) {
+			primitives[i] = new Primitive(t[i]);
+		}
+		return new Primitive(primitives);
+	}, (s, t)->{
+		s.beginArray();
+		for (final short value : t) {
+			s.value(value);
+		}
+		s.endArray();
+	});
+	
+	static final @NotNull ISerializer<byte[]> BYTE_ARRAY = new InlineSerializer<byte[]>((p)->{
+		final Primitive[] primitives = p.getAsArray();
+		final byte[] arr = new byte[primitives.length];
+		for (int i = 0; i < arr.length; i++) {
+			if (primitives[i] != null) arr[i] = primitives[i].getAsNumber().byteValue();
+		}
+		return arr;
+	}, (t)->{
+		final Primitive[] primitives = new Primitive[t.length];
+		for (int i = 0; i < primitives.length; i++) {
+			primitives[i] = new Primitive(t[i]);
+		}
+		return new Primitive(primitives);
+	}, (s, t)->{
+		s.beginArray();
+		for (final byte value : t) {
+			s.value(value);
+		}
+		s.endArray();
+	});
+	
+	static final @NotNull ISerializer<char[]> CHAR_ARRAY = new InlineSerializer<char[]>((p)->{
+		final Primitive[] primitives = p.getAsArray();
+		final char[] arr = new char[primitives.length];
+		for (int i = 0; i < arr.length; i++) {
+			if (primitives[i] != null) arr[i] = primitives[i].getAsCharacter();
+		}
+		return arr;
+	}, (t)->{
+		final Primitive[] primitives = new Primitive[t.length];
+		for (int i = 0; i < primitives.length; i++) {
+			primitives[i] = new Primitive(t[i]);
+		}
+		return new Primitive(primitives);
+	}, (s, t)->{
+		s.beginArray();
+		for (final char value : t) {
+			s.value(value);
+		}
+		s.endArray();
+	});
+	
+	static final @NotNull ISerializer<boolean[]> BOOLEAN_ARRAY = new InlineSerializer<boolean[]>((p)->{
+		final Primitive[] primitives = p.getAsArray();
+		final boolean[] arr = new boolean[primitives.length];
+		for (int i = 0; i < arr.length; i++) {
+			if (primitives[i] != null) arr[i] = primitives[i].getAsBoolean();
+		}
+		return arr;
+	}, (t)->{
+		final Primitive[] primitives = new Primitive[t.length];
+		for (int i = 0; i < primitives.length; i++) {
+			primitives[i] = new Primitive(t[i]);
+		}
+		return new Primitive(primitives);
+	}, (s, t)->{
+		s.beginArray();
+		for (final boolean value : t) {
+			s.value(value);
+		}
+		s.endArray();
+	});
+	
+	private PrimitiveArraySerializers() { }
+	
+}
@@ -0,0 +1,176 @@
+package fun.bb1.config.v2.serializer;
+
+import static java.lang.invoke.MethodType.methodType;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Array;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import fun.bb1.config.v2.adapter.IConfigurationSink;
+import fun.bb1.config.v2.annotations.Configurable;
+import fun.bb1.objects.Primitive;
+import fun.bb1.objects.PrimitiveMap;
+/**
+ * Serializes any record into a map of its components, synthesized on first use by {@link SerializerController}
+ * <br>
+ * Components are read and the record is created through {@link MethodHandle}s resolved once, components annotated with {@link Configurable} are saved under {@link Configurable#value()} and may be read from its {@link Configurable#aliases()}
+ * <br>
+ * Components are serialized by the serializer of their {@link RecordComponent#getGenericType() generic type}, or its {@link SerializerController#getImmutableSerializerFor(Type) immutable form} if they are {@link Configurable#immutable()}
+ * 
+ * @apiNote Components missing from the map are passed as null, or the default value for primitives
+ * <br>
+ * If the record cannot be created, such as when its constructor rejects the components, the failure is logged and null is returned
+ */
+final class RecordSerializer<T> implements ISerializer<T> {
+	
+	private static final @NotNull Logger LOGGER = Logger.getLogger(RecordSerializer.class.getName());
+	/**
+	 * @param type The record to build a serializer for
+	 * 
+	 * @throws ReflectiveOperationException If the record cannot be reached from this module
+	 * 
+	 * @return A serializer for the record
+	 */
+	static <T> @NotNull RecordSerializer<T> of(@NotNull final Class<T> type) throws ReflectiveOperationException {
+		final MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+		final RecordComponent[] components = type.getRecordComponents();
+		final Class<?>[] types = new Class<?>[components.length];
+		final Type[] genericTypes = new Type[components.length];
+		final boolean[] immutable = new boolean[components.length];
+		final MethodHandle[] accessors = new MethodHandle[components.length];
+		final String[][] keys = new String[components.length][];
+		final Object[] defaults = new Object[components.length];
+		for (int i = 0; i < components.length; i++) {
+			final RecordComponent component = components[i];
+			types[i] = component.getType();
+			genericTypes[i] = component.getGenericType();
+			accessors[i] = lookup.unreflect(component.getAccessor()).asType(methodType(Object.class, Object.class));
+			final @Nullable Configurable annotation = type.getDeclaredField(component.getName()).getAnnotation(Configurable.class);
+			keys[i] = getKeys(annotation, component.getName());
+			immutable[i] = annotation != null && annotation.immutable();
+			defaults[i] = types[i].isPrimitive() ? Array.get(Array.newInstance(types[i], 1), 0) : null;
+		}
+		final MethodHandle constructor = lookup.findConstructor(type, methodType(void.class, types));
+		return new RecordSerializer<T>(type, genericTypes, immutable, keys, defaults, accessors, constructor.asType(constructor.type().generic()).asSpreader(Object[].class, components.length));
+	}
+	/**
+	 * @return The key to save under followed by any aliases
+	 */
+	private static @NotNull String[] getKeys(@Nullable final Configurable annotation, @NotNull final String name) {
+		if (annotation == null) return new String[] { name };
+		final String[] keys = new String[annotation.aliases().length + 1];
+		keys[0] = annotation.value().isEmpty() ? name : annotation.value();
+		System.arraycopy(annotation.aliases(), 0, keys, 1, keys.length - 1);
+		return keys;
+	}
+	
+	private final @NotNull Class<T> type;
+	private final @NotNull Type[] types;
+	private final @NotNull boolean[] immutable;
+	private final @NotNull String[][] keys;
+	private final @NotNull Object[] defaults;
+	private final @NotNull MethodHandle[] accessors;
+	private final @NotNull MethodHandle constructor;
+	/**
+	 * Resolved on first use so that records which contain themselves do not recurse forever
+	 */
+	private volatile @Nullable ISerializer<Object>[] serializers;
+	
+	private RecordSerializer(@NotNull final Class<T> type, @NotNull final Type[] types, @NotNull final boolean[] immutable, @NotNull final String[][] keys, @NotNull final Object[] defaults, @NotNull final MethodHandle[] accessors, @NotNull final MethodHandle constructor) {
+		this.type = type;
+		this.types = types;
+		this.immutable = immutable;
+		this.keys = keys;
+		this.defaults = defaults;
+		this.accessors = accessors;
+		this.constructor = constructor;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private @NotNull ISerializer<Object>[] getSerializers() {
+		ISerializer<Object>[] serializers = this.serializers;
+		if (serializers == null) {
+			serializers = new ISerializer[this.types.length];
+			for (int i = 0; i < serializers.length; i++) {
+				final ISerializer<?> serializer = this.immutable[i] ? SerializerController.getImmutableSerializerFor(this.types[i]) : SerializerController.getSerializerFor(this.types[i]);
+				serializers[i] = serializer != null ? serializer.toObjectSerializer() : null;
+			}
+			this.serializers = serializers;
+		}
+		return serializers;
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public @Nullable T deserialize(@NotNull final Primitive primitiveForm) {
+		final ISerializer<Object>[] serializers = this.getSerializers();
+		final PrimitiveMap<String> map = primitiveForm.getAsStringBasedMap();
+		final Object[] args = new Object[serializers.length];
+		for (int i = 0; i < args.length; i++) {
+			Primitive primitive = null;
+			for (final String key : this.keys[i]) {
+				primitive = map.get(key);
+				if (primitive != null) break;
+			}
+			final Object value = primitive != null && serializers[i] != null ? serializers[i].deserialize(primitive) : null;
+			args[i] = value != null ? value : this.defaults[i];
+		}
+		try {
+			return (T) this.constructor.invokeExact(args);
+		} catch (Throwable e) {
+			LOGGER.log(Level.WARNING, "Failed to create \"" + this.type.getName() + "\"!", e);
+			return null;
+		}
+	}
+
+	@Override
+	public @Nullable Primitive serialize(@NotNull final T instanceOfT) {
+		final ISerializer<Object>[] serializers = this.getSerializers();
+		final PrimitiveMap<String> map = new PrimitiveMap<String>();
+		for (int i = 0; i < serializers.length; i++) {
+			if (serializers[i] == null) continue;
+			final Object value;
+			try {
+				value = (Object) this.accessors[i].invokeExact((Object) instanceOfT);
+			} catch (Throwable e) {
+				LOGGER.log(Level.WARNING, "Failed to read the components of \"" + this.type.getName() + "\"!", e);
+				return null;
+			}
+			if (value == null) continue;
+			final Primitive primitive = serializers[i].serialize(value);
+			if (primitive != null) map.put(this.keys[i][0], primitive);
+		}
+		return new Primitive(map);
+	}
+	
+	@Override
+	public void serializeTo(@NotNull final IConfigurationSink sink, @NotNull final T instanceOfT) throws IOException {
+		final ISerializer<Object>[] serializers = this.getSerializers();
+		final Object[] values = new Object[serializers.length]; // read up front so a failure writes nothing, as with serialize
+		for (int i = 0; i < values.length; i++) {
+			if (serializers[i] == null) continue;
+			try {
+				values[i] = (Object) this.accessors[i].invokeExact((Object) instanceOfT);
+			} catch (Throwable e) {
+				LOGGER.log(Level.WARNING, "Failed to read the components of \"" + this.type.getName() + "\"!", e);
+				return;
+			}
+		}
+		sink.beginObject();
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] == null) continue;
+			sink.key(this.keys[i][0]);
+			serializers[i].serializeTo(sink, values[i]);
+		}
+		sink.endObject();
+	}
+	
+}
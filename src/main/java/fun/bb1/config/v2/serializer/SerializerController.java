@@ -2,65 +2,115 @@ package fun.bb1.config.v2.serializer;
 
 import static fun.bb1.exceptions.handler.ExceptionHandler.handle;
 
-import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.jetbrains.annotations.ApiStatus.Internal;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import fun.bb1.config.v2.lazy.LazyValue;
+import fun.bb1.config.v2.registry.SnapshotRegistry;
 import fun.bb1.objects.Primitive;
 import fun.bb1.objects.PrimitiveMap;
 import fun.bb1.registry.IRegistry;
-import fun.bb1.registry.SimpleRegistry;
 
 public final class SerializerController {
 	
-	private static final @NotNull IRegistry<Class<?>, ISerializer<?>> SERIALIZER_REGISTRY = new SimpleRegistry<Class<?>, ISerializer<?>>() {{
-		this.register(String.class, new InlineSerializer<String>((p)->p.getAsString(), (t)->new Primitive(t)));
-		this.register(Character.class, new InlineSerializer<Character>((p)->p.getAsCharacter(), (t)->new Primitive(t)));
-		this.register(char.class, new InlineSerializer<Character>((p)->p.getAsCharacter(), (t)->new Primitive(t)));
-		this.register(Number.class, new InlineSerializer<Number>((p)->p.getAsNumber(), (t)->new Primitive(t)));
-		this.register(Integer.class, new InlineSerializer<Integer>((p)->p.getAsNumber().intValue(), (t)->new Primitive(t)));
-		this.register(int.class, new InlineSerializer<Integer>((p)->p.getAsNumber().intValue(), (t)->new Primitive(t)));
-		this.register(Double.class, new InlineSerializer<Double>((p)->p.getAsNumber().doubleValue(), (t)->new Primitive(t)));
-		this.register(double.class, new InlineSerializer<Double>((p)->p.getAsNumber().doubleValue(), (t)->new Primitive(t)));
-		this.register(Float.class, new InlineSerializer<Float>((p)->p.getAsNumber().floatValue(), (t)->new Primitive(t)));
-		this.register(float.class, new InlineSerializer<Float>((p)->p.getAsNumber().floatValue(), (t)->new Primitive(t)));
-		this.register(Short.class, new InlineSerializer<Short>((p)->p.getAsNumber().shortValue(), (t)->new Primitive(t)));
-		this.register(short.class, new InlineSerializer<Short>((p)->p.getAsNumber().shortValue(), (t)->new Primitive(t)));
-		this.register(Byte.class, new InlineSerializer<Byte>((p)->p.getAsNumber().byteValue(), (t)->new Primitive(t)));
-		this.register(byte.class, new InlineSerializer<Byte>((p)->p.getAsNumber().byteValue(), (t)->new Primitive(t)));
-		this.register(Long.class, new InlineSerializer<Long>((p)->p.getAsNumber().longValue(), (t)->new Primitive(t)));
-		this.register(long.class, new InlineSerializer<Long>((p)->p.getAsNumber().longValue(), (t)->new Primitive(t)));
-		this.register(Boolean.class, new InlineSerializer<Boolean>((p)->p.getAsBoolean(), (t)->new Primitive(t)));
-		this.register(boolean.class, new InlineSerializer<Boolean>((p)->p.getAsBoolean(), (t)->new Primitive(t)));
-		this.register(Primitive.class, new InlineSerializer<Primitive>((p)->p, (t)->t));
+	/**
+	 * Cached in place of null so that types without a serializer are not resolved again
+	 */
+	private static final @NotNull ISerializer<?> NO_SERIALIZER = new InlineSerializer<Object>((p)->null, (t)->null);
+	/**
+	 * The serializers of the primitives {@link fun.bb1.config.v2.accessor.IFieldAccessor} can read and write without boxing, see {@link #getUnboxedType(ISerializer)}
+	 */
+	private static final @NotNull ISerializer<Integer> INT_SERIALIZER = new InlineSerializer<Integer>((p)->p.getAsNumber().intValue(), (t)->new Primitive(t), (s, t)->s.value(t.longValue()));
+	private static final @NotNull ISerializer<Long> LONG_SERIALIZER = new InlineSerializer<Long>((p)->p.getAsNumber().longValue(), (t)->new Primitive(t), (s, t)->s.value(t.longValue()));
+	private static final @NotNull ISerializer<Double> DOUBLE_SERIALIZER = new InlineSerializer<Double>((p)->p.getAsNumber().doubleValue(), (t)->new Primitive(t), (s, t)->s.value(t.doubleValue()));
+	private static final @NotNull ISerializer<Boolean> BOOLEAN_SERIALIZER = new InlineSerializer<Boolean>((p)->p.getAsBoolean(), (t)->new Primitive(t), (s, t)->s.value(t.booleanValue()));
+	private static final @NotNull SnapshotRegistry<ISerializer<?>> SERIALIZER_REGISTRY = new SnapshotRegistry<ISerializer<?>>() {{
+		this.register(String.class, new InlineSerializer<String>((p)->p.getAsString(), (t)->new Primitive(t), (s, t)->s.value(t)));
+		this.register(Character.class, new InlineSerializer<Character>((p)->p.getAsCharacter(), (t)->new Primitive(t), (s, t)->s.value(t.charValue())));
+		this.register(char.class, new InlineSerializer<Character>((p)->p.getAsCharacter(), (t)->new Primitive(t), (s, t)->s.value(t.charValue())));
+		this.register(Number.class, new InlineSerializer<Number>((p)->p.getAsNumber(), (t)->new Primitive(t), (s, t)->s.value(t)));
+		this.register(Integer.class, new InlineSerializer<Integer>((p)->p.getAsNumber().intValue(), (t)->new Primitive(t), (s, t)->s.value(t.longValue())));
+		this.register(int.class, INT_SERIALIZER);
+		this.register(Double.class, new InlineSerializer<Double>((p)->p.getAsNumber().doubleValue(), (t)->new Primitive(t), (s, t)->s.value(t.doubleValue())));
+		this.register(double.class, DOUBLE_SERIALIZER);
+		this.register(Float.class, new InlineSerializer<Float>((p)->p.getAsNumber().floatValue(), (t)->new Primitive(t), (s, t)->s.value(t))); // as a Number so it is not widened to a double
+		this.register(float.class, new InlineSerializer<Float>((p)->p.getAsNumber().floatValue(), (t)->new Primitive(t), (s, t)->s.value(t)));
+		this.register(Short.class, new InlineSerializer<Short>((p)->p.getAsNumber().shortValue(), (t)->new Primitive(t), (s, t)->s.value(t.longValue())));
+		this.register(short.class, new InlineSerializer<Short>((p)->p.getAsNumber().shortValue(), (t)->new Primitive(t), (s, t)->s.value(t.longValue())));
+		this.register(Byte.class, new InlineSerializer<Byte>((p)->p.getAsNumber().byteValue(), (t)->new Primitive(t), (s, t)->s.value(t.longValue())));
+		this.register(byte.class, new InlineSerializer<Byte>((p)->p.getAsNumber().byteValue(), (t)->new Primitive(t), (s, t)->s.value(t.longValue())));
+		this.register(Long.class, new InlineSerializer<Long>((p)->p.getAsNumber().longValue(), (t)->new Primitive(t), (s, t)->s.value(t.longValue())));
+		this.register(long.class, LONG_SERIALIZER);
+		this.register(Boolean.class, new InlineSerializer<Boolean>((p)->p.getAsBoolean(), (t)->new Primitive(t), (s, t)->s.value(t.booleanValue())));
+		this.register(boolean.class, BOOLEAN_SERIALIZER);
+		this.register(Primitive.class, new InlineSerializer<Primitive>((p)->p, (t)->t, (s, t)->s.value(t)));
 		this.register(PrimitiveMap.class, new InlineSerializer<PrimitiveMap<?>>((p)->p.getAsMap(), (t)->new Primitive(t)));
 		this.register(Primitive[].class, new InlineSerializer<Primitive[]>((p)->p.getAsArray(), (t)->new Primitive(t)));
-		this.register(Primitive[][].class, new InlineSerializer<Primitive[][]>((p)->{
-			final Primitive[] arr = p.getAsArray();
-			int maxLength = 0;
-			for (final Primitive prim : arr) {
-				final int length = prim.getAsArray().length;
-				if (maxLength < length) maxLength = length;
-			}
-			final Primitive[][] retArr = new Primitive[arr.length][maxLength];
-			for (int i = 0; i < retArr.length; i++) {
-				retArr[i] = arr[i].getAsArray();
-			}
-			return retArr;
-		}, (t)->{
-			final Primitive[] arr = new Primitive[t.length];
-			for (int i = 0; i < arr.length; i++) {
-				arr[i] = new Primitive(t[i]);
-			}
-			return new Primitive(arr);
-		}));
+		this.register(int[].class, PrimitiveArraySerializers.INT_ARRAY);
+		this.register(long[].class, PrimitiveArraySerializers.LONG_ARRAY);
+		this.register(double[].class, PrimitiveArraySerializers.DOUBLE_ARRAY);
+		this.register(float[].class, PrimitiveArraySerializers.FLOAT_ARRAY);
+		this.register(short[].class, PrimitiveArraySerializers.SHORT_ARRAY);
+		this.register(byte[].class, PrimitiveArraySerializers.BYTE_ARRAY);
+		this.register(char[].class, PrimitiveArraySerializers.CHAR_ARRAY);
+		this.register(boolean[].class, PrimitiveArraySerializers.BOOLEAN_ARRAY);
 	}};
+	/**
+	 * Every resolved serializer, including derived serializers, for the version of the registry they were resolved against
+	 * <br>
+	 * This is replaced rather than cleared when the registry changes so that a resolution racing a registration cannot cache a stale result
+	 */
+	private static volatile @NotNull ResolvedSerializers resolvedSerializers = new ResolvedSerializers(SERIALIZER_REGISTRY.getVersion());
 	
 	public static final @NotNull IRegistry<Class<?>, ISerializer<?>> getSerializerRegistry() {
 		return SERIALIZER_REGISTRY;
 	}
 	
+	/**
+	 * @apiNote This increases every time a serializer is registered, anything derived from the registry should be rebuilt when it changes
+	 * 
+	 * @return The current generation of the serializer registry
+	 */
+	@Internal
+	public static final int getGeneration() {
+		return SERIALIZER_REGISTRY.getVersion();
+	}
+	
+	/**
+	 * @param serializer The serializer to check
+	 * 
+	 * @apiNote Fields of the returned type may be read and written through the primitive methods of their {@link fun.bb1.config.v2.accessor.IFieldAccessor} instead of the serializer, as it would produce the same result
+	 * 
+	 * @return int, long, double or boolean if the serializer is the built in serializer of that primitive, elsewise null
+	 */
+	@Internal
+	public static final @Nullable Class<?> getUnboxedType(@NotNull final ISerializer<?> serializer) {
+		if (serializer == INT_SERIALIZER) return int.class;
+		if (serializer == LONG_SERIALIZER) return long.class;
+		if (serializer == DOUBLE_SERIALIZER) return double.class;
+		if (serializer == BOOLEAN_SERIALIZER) return boolean.class;
+		return null;
+	}
+	
+	private static final @NotNull ResolvedSerializers getResolvedSerializers() {
+		final ResolvedSerializers resolved = resolvedSerializers;
+		final int version = SERIALIZER_REGISTRY.getVersion();
+		if (resolved.version() == version) return resolved;
+		final ResolvedSerializers rebuilt = new ResolvedSerializers(version);
+		resolvedSerializers = rebuilt;
+		return rebuilt;
+	}
+	
 	public static final <T> @Nullable Primitive serialize(@NotNull final T type) {
 		@SuppressWarnings("unchecked")
 		final Class<T> clazz = (Class<T>) type.getClass();
@@ -72,77 +122,146 @@ public final class SerializerController {
 		return handle(()->getSerializerFor(clazz).deserialize(primitive));
 	}
 	
+	/**
+	 * @param type The type to get the serializer of
+	 * 
+	 * @apiNote Results (including the lack of a serializer) are cached until another serializer is registered
+	 * 
+	 * @return The serializer for the provided type, or null if there is none
+	 */
 	@SuppressWarnings("unchecked")
 	public static final <T> @Nullable ISerializer<T> getSerializerFor(@NotNull final Class<T> type) {
-		final ISerializer<T> translator = (ISerializer<T>) getSerializerRegistry().get(type);
-		if (translator != null) return translator;
-		if (type.isArray()) {
-			int count = 0;
-			Class<?> rep = type;
-			while (rep.isArray()) {
-				count++;
-				rep = rep.componentType();
-			}
-			ISerializer<Object> translator2 = getSerializerRegistry().get(rep).toObjectSerializer();
-			if (translator2 == null) return null;
-			for (int i = count; i > 0; i--) {
-	            rep = rep.arrayType();
-	            translator2 = buildArrayTranslator(rep, translator2);
-	        }
-			return new CastingSerializer<T>(translator2);
+		final Map<Class<?>, ISerializer<?>> resolved = getResolvedSerializers().classes();
+		ISerializer<?> serializer = resolved.get(type);
+		if (serializer == null) {
+			serializer = resolveSerializerFor(type);
+			if (serializer == null) serializer = NO_SERIALIZER;
+			final ISerializer<?> existing = resolved.putIfAbsent(type, serializer); // not computeIfAbsent as arrays resolve their components recursively
+			if (existing != null) serializer = existing;
 		}
-		if (type.isEnum()) {
-			return new ISerializer<T>() {
-
-				@Override
-				public @Nullable T deserialize(@NotNull Primitive primitiveForm) {
-					if (primitiveForm.isNumber()) return type.getEnumConstants()[primitiveForm.getAsNumber().intValue()];
-					final String en = primitiveForm.getAsString();
-					for (final T t : type.getEnumConstants()) 
-						if (((Enum<?>)t).name().equalsIgnoreCase(en))
-							return t;
-					return null;
-				}
-
-				@Override
-				public @Nullable Primitive serialize(@NotNull T instanceOfT) {
-					return new Primitive(((Enum<?>)instanceOfT).name());
-				}
-				
-			};
+		return serializer != NO_SERIALIZER ? (ISerializer<T>) serializer : null;
+	}
+	
+	/**
+	 * Resolves the serializer of a possibly generic type, such as the {@link java.lang.reflect.Field#getGenericType() generic type} of a field
+	 * <br>
+	 * Parameterized {@link Collection}s, {@link Map}s and {@link LazyValue}s are serialized using the serializers of their type arguments, any other parameterized type uses the serializer of its raw type
+	 * 
+	 * @param type The type to get the serializer of
+	 * 
+	 * @apiNote Results (including the lack of a serializer) are cached until another serializer is registered
+	 * 
+	 * @return The serializer for the provided type, or null if there is none
+	 */
+	@SuppressWarnings("unchecked")
+	public static final <T> @Nullable ISerializer<T> getSerializerFor(@NotNull final Type type) {
+		if (type instanceof final Class<?> clazz) return (ISerializer<T>) getSerializerFor(clazz);
+		final Map<Type, ISerializer<?>> resolved = getResolvedSerializers().generics();
+		ISerializer<?> serializer = resolved.get(type);
+		if (serializer == null) {
+			serializer = resolveGenericSerializerFor(type);
+			if (serializer == null) serializer = NO_SERIALIZER;
+			final ISerializer<?> existing = resolved.putIfAbsent(type, serializer);
+			if (existing != null) serializer = existing;
 		}
-		return null;
+		return serializer != NO_SERIALIZER ? (ISerializer<T>) serializer : null;
+	}
+	/**
+	 * @param type The type to get the serializer of
+	 * 
+	 * @apiNote Only {@link Collection}, {@link java.util.List}, {@link java.util.Set} and {@link Map} have immutable forms (including when they are the value of a {@link LazyValue}), for everything else this is the same as {@link #getSerializerFor(Type)}
+	 * 
+	 * @return The serializer for the provided type that produces immutable values, or null if there is none
+	 */
+	@SuppressWarnings("unchecked")
+	public static final <T> @Nullable ISerializer<T> getImmutableSerializerFor(@NotNull final Type type) {
+		final ISerializer<?> serializer = getSerializerFor(type);
+		return serializer != null ? (ISerializer<T>) toImmutable(serializer) : null;
 	}
 	
-	private static final @Nullable ISerializer<Object> buildArrayTranslator(@NotNull final Class<?> type, @NotNull final ISerializer<?> translator) {
-		final ISerializer<Object> serializer = translator.toObjectSerializer();
-		return new ISerializer<Object>() {
-
-			@Override
-			public @NotNull final Object deserialize(@NotNull final Primitive primitiveForm) {
-				final Primitive[] primArr = primitiveForm.getAsArray();
-				final Object arr = Array.newInstance(type, primArr.length);
-				for (int i = 0; i < primArr.length; i++) {
-					if (primArr[i] == null) continue;
-					final Object val = serializer.deserialize(primArr[i]);
-					Array.set(arr, i, handle(()->type.cast(val))); // cast for primitives
-				}
-				return arr;
+	static final @NotNull ISerializer<?> toImmutable(@NotNull final ISerializer<?> serializer) {
+		if (serializer instanceof final CollectionSerializer<?> collectionSerializer) return collectionSerializer.toImmutable();
+		if (serializer instanceof final MapSerializer<?> mapSerializer) return mapSerializer.toImmutable();
+		if (serializer instanceof final LazySerializer<?> lazySerializer) return lazySerializer.toImmutable();
+		return serializer;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static final @Nullable ISerializer<?> resolveGenericSerializerFor(@NotNull final Type type) {
+		if (type instanceof final ParameterizedType parameterizedType) {
+			final Class<?> rawType = (Class<?>) parameterizedType.getRawType();
+			final ISerializer<?> registered = getSerializerRegistry().get(rawType);
+			if (registered != null) return registered; // an explicitly registered serializer always wins
+			final Type[] arguments = parameterizedType.getActualTypeArguments();
+			if (rawType == LazyValue.class && arguments.length == 1) {
+				final ISerializer<?> valueSerializer = getSerializerFor(arguments[0]);
+				return valueSerializer != null ? new LazySerializer<Object>((ISerializer<Object>) valueSerializer) : null; // not wrapped, so its immutable form can still be found
 			}
-
-			@Override
-			public @NotNull final Primitive serialize(@NotNull Object primitiveForm) {
-				if (primitiveForm instanceof Primitive p) primitiveForm = p.getAsArray();
-				final Primitive[] primArr = new Primitive[Array.getLength(primitiveForm)];
-				for (int i = 0; i < primArr.length; i++) {
-					try {
-						primArr[i] = serializer.serialize(Array.get(primitiveForm, i));
-					} catch (Throwable e) { }
-				}
-				return new Primitive(primArr);
+			if (Collection.class.isAssignableFrom(rawType) && arguments.length == 1) {
+				final ISerializer<?> elementSerializer = getSerializerFor(arguments[0]);
+				return elementSerializer != null ? CollectionSerializer.of(rawType, elementSerializer) : null;
+			}
+			if (Map.class.isAssignableFrom(rawType) && arguments.length == 2) {
+				final ISerializer<?> keySerializer = getSerializerFor(arguments[0]);
+				final ISerializer<?> valueSerializer = getSerializerFor(arguments[1]);
+				if (keySerializer == null || valueSerializer == null) return null;
+				return MapSerializer.of(rawType, getRawType(arguments[0]), keySerializer, valueSerializer);
 			}
-			
-		};
+			return getSerializerFor(rawType);
+		}
+		if (type instanceof final GenericArrayType arrayType) {
+			final ISerializer<?> componentSerializer = getSerializerFor(arrayType.getGenericComponentType());
+			if (componentSerializer == null) return null;
+			return new ArraySerializer<Object>(getRawType(arrayType.getGenericComponentType()), componentSerializer);
+		}
+		if (type instanceof final WildcardType wildcardType) return getSerializerFor(wildcardType.getUpperBounds()[0]);
+		if (type instanceof final TypeVariable<?> variable) return getSerializerFor(variable.getBounds()[0]);
+		return null;
+	}
+	
+	private static final @NotNull Class<?> getRawType(@NotNull final Type type) {
+		if (type instanceof final Class<?> clazz) return clazz;
+		if (type instanceof final ParameterizedType parameterizedType) return (Class<?>) parameterizedType.getRawType();
+		if (type instanceof final GenericArrayType arrayType) return getRawType(arrayType.getGenericComponentType()).arrayType();
+		if (type instanceof final WildcardType wildcardType) return getRawType(wildcardType.getUpperBounds()[0]);
+		if (type instanceof final TypeVariable<?> variable) return getRawType(variable.getBounds()[0]);
+		return Object.class;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static final <T> @Nullable ISerializer<T> resolveSerializerFor(@NotNull final Class<T> type) {
+		final ISerializer<T> translator = (ISerializer<T>) getSerializerRegistry().get(type);
+		if (translator != null) return translator;
+		if (type.isArray()) { // primitive arrays are registered, so this is only reached for arrays of references
+			final ISerializer<?> componentSerializer = getSerializerFor(type.componentType());
+			if (componentSerializer == null) return null;
+			return new ArraySerializer<T>(type.componentType(), componentSerializer);
+		}
+		if (Enum.class.isAssignableFrom(type) && type != Enum.class) {
+			return (ISerializer<T>) buildEnumSerializer(type.isEnum() ? type : type.getSuperclass()); // constants with bodies are subclasses of their enum
+		}
+		if (type.isRecord()) return handle(()->RecordSerializer.of(type));
+		final ISerializer<?> inherited = SERIALIZER_REGISTRY.resolve(type); // registered for a superclass or interface
+		return inherited != null && inherited.handlesSubtypes() ? (ISerializer<T>) inherited : null;
+	}
+	
+	private static final <E extends Enum<E>> @NotNull ISerializer<E> buildEnumSerializer(@NotNull final Class<?> type) {
+		@SuppressWarnings("unchecked")
+		final Class<E> enumType = (Class<E>) type;
+		return new EnumSerializer<E>(enumType);
 	}
 		
-}
+	/**
+	 * @param version The version of the registry these were resolved against
+	 * @param classes Serializers resolved by class
+	 * @param generics Serializers resolved by generic type, such as {@code List<String>}
+	 */
+	private static record ResolvedSerializers(int version, @NotNull Map<Class<?>, ISerializer<?>> classes, @NotNull Map<Type, ISerializer<?>> generics) {
+		
+		private ResolvedSerializers(final int version) {
+			this(version, new ConcurrentHashMap<Class<?>, ISerializer<?>>(), new ConcurrentHashMap<Type, ISerializer<?>>());
+		}
+		
+	}
+	
+}
\ No newline at end of file